@@ -0,0 +1,28 @@
+package com.bervan.cookbook.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Enables JDBC batching with ordered inserts and updates, so a bulk import writes its
+ * recipes, recipe ingredients and history rows as a few multi-row statements per
+ * transaction instead of one round trip per row. Values set by the host application win.
+ */
+@Component
+public class CookBookHibernateConfig implements HibernatePropertiesCustomizer {
+    private final int jdbcBatchSize;
+
+    public CookBookHibernateConfig(@Value("${cook-book.jpa.jdbc-batch-size:50}") int jdbcBatchSize) {
+        this.jdbcBatchSize = jdbcBatchSize;
+    }
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.putIfAbsent("hibernate.jdbc.batch_size", jdbcBatchSize);
+        hibernateProperties.putIfAbsent("hibernate.order_inserts", true);
+        hibernateProperties.putIfAbsent("hibernate.order_updates", true);
+    }
+}
@@ -0,0 +1,24 @@
+package com.bervan.cookbook.event;
+
+import com.bervan.cookbook.model.Ingredient;
+
+import java.util.UUID;
+
+/**
+ * Published by {@code IngredientService} after an ingredient (including its aliases)
+ * was saved or soft-deleted. {@code ingredient} is null for deletions.
+ */
+public record IngredientChangedEvent(UUID ingredientId, Ingredient ingredient) {
+
+    public static IngredientChangedEvent saved(Ingredient ingredient) {
+        return new IngredientChangedEvent(ingredient.getId(), ingredient);
+    }
+
+    public static IngredientChangedEvent deleted(UUID ingredientId) {
+        return new IngredientChangedEvent(ingredientId, null);
+    }
+
+    public boolean isDeleted() {
+        return ingredient == null || Boolean.TRUE.equals(ingredient.isDeleted());
+    }
+}
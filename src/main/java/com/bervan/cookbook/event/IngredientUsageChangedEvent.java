@@ -0,0 +1,48 @@
+package com.bervan.cookbook.event;
+
+import com.bervan.cookbook.index.IngredientUsageCounters.Source;
+import com.bervan.cookbook.model.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Published by {@code DietService} and {@code ShoppingCartService} after a diet day or a
+ * shopping cart was saved or deleted. {@code ingredientIds} lists the ingredient of every
+ * live item of that owner, empty for a deleted owner. Recipes are covered by
+ * {@link RecipeChangedEvent}.
+ */
+public record IngredientUsageChangedEvent(Source source, UUID ownerId, List<UUID> ingredientIds) {
+
+    public static IngredientUsageChangedEvent of(DietDay day) {
+        List<UUID> ingredientIds = new ArrayList<>();
+        if (!Boolean.TRUE.equals(day.isDeleted())) {
+            for (DietMeal meal : day.getMeals()) {
+                if (Boolean.TRUE.equals(meal.isDeleted())) continue;
+                for (DietMealItem item : meal.getItems()) {
+                    if (!Boolean.TRUE.equals(item.isDeleted()) && item.getIngredient() != null) {
+                        ingredientIds.add(item.getIngredient().getId());
+                    }
+                }
+            }
+        }
+        return new IngredientUsageChangedEvent(Source.DIET, day.getId(), ingredientIds);
+    }
+
+    public static IngredientUsageChangedEvent of(ShoppingCart cart) {
+        List<UUID> ingredientIds = new ArrayList<>();
+        if (!Boolean.TRUE.equals(cart.isDeleted())) {
+            for (ShoppingCartItem item : cart.getItems()) {
+                if (!Boolean.TRUE.equals(item.isDeleted()) && item.getIngredient() != null) {
+                    ingredientIds.add(item.getIngredient().getId());
+                }
+            }
+        }
+        return new IngredientUsageChangedEvent(Source.CART, cart.getId(), ingredientIds);
+    }
+
+    public static IngredientUsageChangedEvent deleted(Source source, UUID ownerId) {
+        return new IngredientUsageChangedEvent(source, ownerId, List.of());
+    }
+}
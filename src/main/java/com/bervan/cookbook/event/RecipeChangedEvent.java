@@ -0,0 +1,24 @@
+package com.bervan.cookbook.event;
+
+import com.bervan.cookbook.model.Recipe;
+
+import java.util.UUID;
+
+/**
+ * Published by {@code RecipeService} after a recipe was saved or soft-deleted.
+ * {@code recipe} is null for deletions.
+ */
+public record RecipeChangedEvent(UUID recipeId, Recipe recipe) {
+
+    public static RecipeChangedEvent saved(Recipe recipe) {
+        return new RecipeChangedEvent(recipe.getId(), recipe);
+    }
+
+    public static RecipeChangedEvent deleted(UUID recipeId) {
+        return new RecipeChangedEvent(recipeId, null);
+    }
+
+    public boolean isDeleted() {
+        return recipe == null || Boolean.TRUE.equals(recipe.isDeleted());
+    }
+}
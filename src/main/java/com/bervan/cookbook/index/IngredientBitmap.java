@@ -0,0 +1,180 @@
+package com.bervan.cookbook.index;
+
+import java.util.Arrays;
+
+/**
+ * Immutable compressed bitset over ingredient ordinals, laid out like a roaring
+ * bitmap: values are grouped by their high 16 bits and each group is stored
+ * either as a sorted char array (sparse) or as a 1024-word bitmap (dense).
+ */
+public final class IngredientBitmap {
+    public static final IngredientBitmap EMPTY = new IngredientBitmap(new char[0], new char[0][], new long[0][], 0);
+    private static final int ARRAY_LIMIT = 4096;
+    private static final int BITMAP_WORDS = 1024;
+
+    private final char[] keys;
+    private final char[][] arrays;
+    private final long[][] bitmaps;
+    private final int cardinality;
+
+    private IngredientBitmap(char[] keys, char[][] arrays, long[][] bitmaps, int cardinality) {
+        this.keys = keys;
+        this.arrays = arrays;
+        this.bitmaps = bitmaps;
+        this.cardinality = cardinality;
+    }
+
+    /**
+     * @param sortedValues distinct non-negative values in ascending order
+     */
+    public static IngredientBitmap of(int[] sortedValues) {
+        if (sortedValues.length == 0) {
+            return EMPTY;
+        }
+
+        int containerCount = 1;
+        for (int i = 1; i < sortedValues.length; i++) {
+            if ((sortedValues[i] >>> 16) != (sortedValues[i - 1] >>> 16)) containerCount++;
+        }
+
+        char[] keys = new char[containerCount];
+        char[][] arrays = new char[containerCount][];
+        long[][] bitmaps = new long[containerCount][];
+
+        int start = 0;
+        for (int c = 0; c < containerCount; c++) {
+            int key = sortedValues[start] >>> 16;
+            int end = start;
+            while (end < sortedValues.length && (sortedValues[end] >>> 16) == key) end++;
+
+            keys[c] = (char) key;
+            int size = end - start;
+            if (size <= ARRAY_LIMIT) {
+                char[] values = new char[size];
+                for (int i = 0; i < size; i++) {
+                    values[i] = (char) sortedValues[start + i];
+                }
+                arrays[c] = values;
+            } else {
+                long[] words = new long[BITMAP_WORDS];
+                for (int i = start; i < end; i++) {
+                    int low = sortedValues[i] & 0xFFFF;
+                    words[low >>> 6] |= 1L << low;
+                }
+                bitmaps[c] = words;
+            }
+            start = end;
+        }
+
+        return new IngredientBitmap(keys, arrays, bitmaps, sortedValues.length);
+    }
+
+    public int cardinality() {
+        return cardinality;
+    }
+
+    public boolean isEmpty() {
+        return cardinality == 0;
+    }
+
+    public boolean contains(int value) {
+        int c = Arrays.binarySearch(keys, (char) (value >>> 16));
+        if (c < 0) return false;
+        char low = (char) value;
+        if (arrays[c] != null) {
+            return Arrays.binarySearch(arrays[c], low) >= 0;
+        }
+        return (bitmaps[c][low >>> 6] & (1L << low)) != 0;
+    }
+
+    /**
+     * @return {@code |this AND other|} without materializing the intersection
+     */
+    public int andCardinality(IngredientBitmap other) {
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < keys.length && j < other.keys.length) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                count += containerAndCardinality(i, other, j);
+                i++;
+                j++;
+            }
+        }
+        return count;
+    }
+
+    public int[] toArray() {
+        int[] values = new int[cardinality];
+        int pos = 0;
+        for (int c = 0; c < keys.length; c++) {
+            int high = keys[c] << 16;
+            if (arrays[c] != null) {
+                for (char low : arrays[c]) {
+                    values[pos++] = high | low;
+                }
+            } else {
+                long[] words = bitmaps[c];
+                for (int w = 0; w < words.length; w++) {
+                    long word = words[w];
+                    while (word != 0) {
+                        values[pos++] = high | (w << 6) | Long.numberOfTrailingZeros(word);
+                        word &= word - 1;
+                    }
+                }
+            }
+        }
+        return values;
+    }
+
+    private int containerAndCardinality(int c, IngredientBitmap other, int oc) {
+        char[] a = arrays[c];
+        char[] b = other.arrays[oc];
+        if (a != null && b != null) {
+            return arrayAndCardinality(a, b);
+        }
+        if (a != null) {
+            return arrayBitmapAndCardinality(a, other.bitmaps[oc]);
+        }
+        if (b != null) {
+            return arrayBitmapAndCardinality(b, bitmaps[c]);
+        }
+        long[] wa = bitmaps[c];
+        long[] wb = other.bitmaps[oc];
+        int count = 0;
+        for (int w = 0; w < BITMAP_WORDS; w++) {
+            count += Long.bitCount(wa[w] & wb[w]);
+        }
+        return count;
+    }
+
+    private static int arrayAndCardinality(char[] a, char[] b) {
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                count++;
+                i++;
+                j++;
+            }
+        }
+        return count;
+    }
+
+    private static int arrayBitmapAndCardinality(char[] values, long[] words) {
+        int count = 0;
+        for (char low : values) {
+            if ((words[low >>> 6] & (1L << low)) != 0) count++;
+        }
+        return count;
+    }
+}
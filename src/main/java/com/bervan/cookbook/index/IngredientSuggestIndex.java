@@ -0,0 +1,233 @@
+package com.bervan.cookbook.index;
+
+import com.bervan.cookbook.model.Ingredient;
+import com.bervan.cookbook.model.IngredientAlias;
+import com.bervan.cookbook.text.PolishTextFolder;
+
+import java.util.*;
+import java.util.function.ToLongFunction;
+
+/**
+ * Immutable prefix index for ingredient autocomplete. Every word start of every
+ * diacritic-folded name and alias is a key ("pierś z kurczaka" gives "piers z kurczaka",
+ * "z kurczaka" and "kurczaka"); the keys are sorted once, so the keys of a prefix are one
+ * contiguous range found by binary search. Matches are ranked by usage count, then by
+ * shorter name; the ranking is precomputed, so a lookup is a range scan with no sorting.
+ */
+public class IngredientSuggestIndex {
+    private final Ingredient[] ingredients;
+    private final long[] usage;
+    private final String[] keys;
+    private final int[] keyOrdinals;
+    // All ordinals best ranked first, and the position of each ordinal in it
+    private final int[] ranked;
+    private final int[] rankOf;
+
+    private IngredientSuggestIndex(Ingredient[] ingredients, long[] usage, String[] keys, int[] keyOrdinals) {
+        this.ingredients = ingredients;
+        this.usage = usage;
+        this.keys = keys;
+        this.keyOrdinals = keyOrdinals;
+        this.ranked = new int[ingredients.length];
+        this.rankOf = new int[ingredients.length];
+        Integer[] order = new Integer[ingredients.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, this::compareRank);
+        for (int i = 0; i < order.length; i++) {
+            ranked[i] = order[i];
+            rankOf[order[i]] = i;
+        }
+    }
+
+    /**
+     * @param usageCounts number of references of an ingredient id
+     */
+    public static IngredientSuggestIndex build(Collection<Ingredient> source, ToLongFunction<UUID> usageCounts) {
+        List<Ingredient> live = source.stream()
+                .filter(ingredient -> !Boolean.TRUE.equals(ingredient.isDeleted()) && ingredient.getName() != null)
+                .toList();
+        Ingredient[] ingredients = live.toArray(new Ingredient[0]);
+        long[] usage = new long[ingredients.length];
+
+        List<KeyEntry> entries = new ArrayList<>();
+        for (int ordinal = 0; ordinal < ingredients.length; ordinal++) {
+            Ingredient ingredient = ingredients[ordinal];
+            usage[ordinal] = usageCounts.applyAsLong(ingredient.getId());
+            addKeys(entries, ingredient, ordinal);
+        }
+        entries.sort(Comparator.comparing(KeyEntry::key));
+
+        String[] keys = new String[entries.size()];
+        int[] keyOrdinals = new int[entries.size()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = entries.get(i).key();
+            keyOrdinals[i] = entries.get(i).ordinal();
+        }
+        return new IngredientSuggestIndex(ingredients, usage, keys, keyOrdinals);
+    }
+
+    /**
+     * Same keys with the ranking recomputed for new usage counts; only the ranking is rebuilt.
+     */
+    public IngredientSuggestIndex withUsage(ToLongFunction<UUID> usageCounts) {
+        long[] newUsage = new long[ingredients.length];
+        for (int ordinal = 0; ordinal < ingredients.length; ordinal++) {
+            newUsage[ordinal] = usageCounts.applyAsLong(ingredients[ordinal].getId());
+        }
+        return new IngredientSuggestIndex(ingredients, newUsage, keys, keyOrdinals);
+    }
+
+    /**
+     * Applies ingredient changes without reloading the rest: the keys of changed and removed
+     * ingredients are dropped from the sorted key array, the keys of their new versions are
+     * sorted on their own and merged in, and the ranking is recomputed.
+     *
+     * @param changed ingredient id -> new version, or null when the ingredient was deleted
+     */
+    public IngredientSuggestIndex withChanges(Map<UUID, Ingredient> changed, ToLongFunction<UUID> usageCounts) {
+        int[] newOrdinal = new int[ingredients.length];
+        List<Ingredient> kept = new ArrayList<>(ingredients.length + changed.size());
+        for (int ordinal = 0; ordinal < ingredients.length; ordinal++) {
+            if (changed.containsKey(ingredients[ordinal].getId())) {
+                newOrdinal[ordinal] = -1;
+            } else {
+                newOrdinal[ordinal] = kept.size();
+                kept.add(ingredients[ordinal]);
+            }
+        }
+
+        List<KeyEntry> added = new ArrayList<>();
+        for (Ingredient ingredient : changed.values()) {
+            if (ingredient != null && !Boolean.TRUE.equals(ingredient.isDeleted()) && ingredient.getName() != null) {
+                addKeys(added, ingredient, kept.size());
+                kept.add(ingredient);
+            }
+        }
+        added.sort(Comparator.comparing(KeyEntry::key));
+
+        // Merge the surviving old keys (already sorted) with the added ones
+        String[] newKeys = new String[keys.length + added.size()];
+        int[] newKeyOrdinals = new int[newKeys.length];
+        int count = 0;
+        int a = 0;
+        for (int i = 0; i < keys.length; i++) {
+            int ordinal = newOrdinal[keyOrdinals[i]];
+            if (ordinal < 0) continue;
+            while (a < added.size() && added.get(a).key().compareTo(keys[i]) < 0) {
+                newKeys[count] = added.get(a).key();
+                newKeyOrdinals[count++] = added.get(a++).ordinal();
+            }
+            newKeys[count] = keys[i];
+            newKeyOrdinals[count++] = ordinal;
+        }
+        for (; a < added.size(); a++) {
+            newKeys[count] = added.get(a).key();
+            newKeyOrdinals[count++] = added.get(a).ordinal();
+        }
+
+        Ingredient[] newIngredients = kept.toArray(new Ingredient[0]);
+        long[] newUsage = new long[newIngredients.length];
+        for (int ordinal = 0; ordinal < newIngredients.length; ordinal++) {
+            newUsage[ordinal] = usageCounts.applyAsLong(newIngredients[ordinal].getId());
+        }
+        return new IngredientSuggestIndex(newIngredients, newUsage,
+                Arrays.copyOf(newKeys, count), Arrays.copyOf(newKeyOrdinals, count));
+    }
+
+    public int size() {
+        return ingredients.length;
+    }
+
+    /**
+     * @return up to {@code limit} ingredients with a name or alias word starting with the prefix,
+     * most used first; the most used ingredients overall for a blank prefix
+     */
+    public List<Ingredient> suggest(String prefix, int limit) {
+        if (limit <= 0) {
+            return Collections.emptyList();
+        }
+        String folded = prefix != null ? PolishTextFolder.fold(prefix) : "";
+        if (folded.isEmpty()) {
+            List<Ingredient> top = new ArrayList<>(Math.min(limit, ranked.length));
+            for (int i = 0; i < ranked.length && top.size() < limit; i++) {
+                top.add(ingredients[ranked[i]]);
+            }
+            return top;
+        }
+
+        BitSet matches = matchingRanks(folded);
+        List<Ingredient> result = new ArrayList<>(Math.min(limit, matches.cardinality()));
+        for (int rank = matches.nextSetBit(0); rank >= 0 && result.size() < limit; rank = matches.nextSetBit(rank + 1)) {
+            result.add(ingredients[ranked[rank]]);
+        }
+        return result;
+    }
+
+    /**
+     * @return number of distinct ingredients {@link #suggest} can return for the prefix
+     */
+    public int count(String prefix) {
+        String folded = prefix != null ? PolishTextFolder.fold(prefix) : "";
+        return folded.isEmpty() ? ingredients.length : matchingRanks(folded).cardinality();
+    }
+
+    /**
+     * Marks the rank of every ingredient with a key in the prefix range; iterating the set
+     * bits yields the matches best first, without sorting.
+     */
+    private BitSet matchingRanks(String folded) {
+        BitSet ranks = new BitSet(ingredients.length);
+        for (int i = lowerBound(folded); i < keys.length && keys[i].startsWith(folded); i++) {
+            ranks.set(rankOf[keyOrdinals[i]]);
+        }
+        return ranks;
+    }
+
+    private int lowerBound(String key) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int compareRank(int a, int b) {
+        int byUsage = Long.compare(usage[b], usage[a]);
+        if (byUsage != 0) return byUsage;
+        String nameA = ingredients[a].getName();
+        String nameB = ingredients[b].getName();
+        int byLength = Integer.compare(nameA.length(), nameB.length());
+        return byLength != 0 ? byLength : nameA.compareToIgnoreCase(nameB);
+    }
+
+    private static void addKeys(List<KeyEntry> entries, Ingredient ingredient, int ordinal) {
+        addKeys(entries, ingredient.getName(), ordinal);
+        if (ingredient.getAliases() != null) {
+            for (IngredientAlias alias : ingredient.getAliases()) {
+                if (!Boolean.TRUE.equals(alias.isDeleted()) && alias.getAliasName() != null) {
+                    addKeys(entries, alias.getAliasName(), ordinal);
+                }
+            }
+        }
+    }
+
+    private static void addKeys(List<KeyEntry> entries, String text, int ordinal) {
+        String folded = PolishTextFolder.fold(text);
+        for (int i = 0; i < folded.length(); i++) {
+            if (i == 0 || (folded.charAt(i - 1) == ' ' && folded.charAt(i) != ' ')) {
+                entries.add(new KeyEntry(folded.substring(i), ordinal));
+            }
+        }
+    }
+
+    private record KeyEntry(String key, int ordinal) {
+    }
+}
@@ -0,0 +1,418 @@
+package com.bervan.cookbook.index;
+
+import com.bervan.cookbook.model.Ingredient;
+import com.bervan.cookbook.model.IngredientAlias;
+import com.bervan.cookbook.text.PolishTextFolder;
+import com.bervan.cookbook.text.PolishTokenizer;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Character-trigram index over diacritic-folded ingredient names and aliases.
+ * Every word is padded with a space on both sides before trigrams are taken,
+ * so a shared word of two or more letters always shares at least two trigrams.
+ * <p>
+ * The (stemmed) token set of every name and alias is computed once, interned to
+ * int ids and kept sorted, so Jaccard scoring is a merge of two int arrays and
+ * an exact stem match is a single map lookup. Stemming is lossy ("maka" and "mak"
+ * both give "mak"), so a token set shared by several ingredients is not an exact
+ * match; fuzzy scoring and {@link #surfaceDistance} decide between them. Query
+ * tokens unknown to the index are corrected to the closest known token within
+ * a small edit distance (see {@link TokenBkTree}); a corrected token counts as
+ * a partial hit, weighted down by its distance.
+ */
+public class IngredientTextIndex {
+    private static final int[] EMPTY = new int[0];
+    private static final long[] NO_TRIGRAMS = new long[0];
+    private static final int[][] NO_TERMS = new int[0][];
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<UUID, Integer> ordinals = new HashMap<>();
+    private final List<Ingredient> ingredients = new ArrayList<>();
+    private final List<long[]> ingredientTrigrams = new ArrayList<>();
+    // Per ingredient: [0] = name tokens, [1..] = alias tokens; each sorted token ids
+    private final List<int[][]> termTokens = new ArrayList<>();
+    private final Map<String, Integer> tokenIds = new HashMap<>();
+    private final TokenBkTree vocabulary = new TokenBkTree();
+    // Sorted token ids of a name or alias -> sorted ordinals of the ingredients having it
+    private final Map<String, int[]> termKeys = new HashMap<>();
+    private final Deque<Integer> freeOrdinals = new ArrayDeque<>();
+    private final Map<Long, int[]> postings = new HashMap<>();
+
+    public static IngredientTextIndex build(Collection<Ingredient> source) {
+        IngredientTextIndex index = new IngredientTextIndex();
+        for (Ingredient ingredient : source) {
+            index.put(ingredient);
+        }
+        return index;
+    }
+
+    public void put(Ingredient ingredient) {
+        if (Boolean.TRUE.equals(ingredient.isDeleted())) {
+            remove(ingredient.getId());
+            return;
+        }
+
+        List<String> terms = termsOf(ingredient);
+        long[] trigrams = trigramsOf(terms);
+        lock.writeLock().lock();
+        try {
+            int[][] tokens = new int[terms.size()][];
+            for (int i = 0; i < tokens.length; i++) {
+                tokens[i] = internTokens(PolishTokenizer.tokenize(terms.get(i)));
+            }
+
+            Integer ordinal = ordinals.get(ingredient.getId());
+            if (ordinal != null) {
+                unlink(ordinal);
+            } else {
+                ordinal = freeOrdinals.isEmpty() ? ingredients.size() : freeOrdinals.pop();
+                if (ordinal == ingredients.size()) {
+                    ingredients.add(null);
+                    ingredientTrigrams.add(NO_TRIGRAMS);
+                    termTokens.add(NO_TERMS);
+                }
+                ordinals.put(ingredient.getId(), ordinal);
+            }
+
+            ingredients.set(ordinal, ingredient);
+            ingredientTrigrams.set(ordinal, trigrams);
+            termTokens.set(ordinal, tokens);
+            int[] self = {ordinal};
+            for (int[] termTokenIds : tokens) {
+                if (termTokenIds.length == 0) continue;
+                termKeys.merge(termKey(termTokenIds), self, (current, added) -> with(current, added[0]));
+            }
+            for (long trigram : trigrams) {
+                postings.put(trigram, with(postings.getOrDefault(trigram, EMPTY), ordinal));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(UUID ingredientId) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.remove(ingredientId);
+            if (ordinal == null) {
+                return;
+            }
+            unlink(ordinal);
+            ingredients.set(ordinal, null);
+            ingredientTrigrams.set(ordinal, NO_TRIGRAMS);
+            termTokens.set(ordinal, NO_TERMS);
+            freeOrdinals.push(ordinal);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return the only ingredient whose name or an alias has exactly the given token set;
+     * null when there is none or the token set is shared by several ingredients
+     */
+    public Ingredient findExact(Set<String> tokens) {
+        if (tokens.isEmpty()) {
+            return null;
+        }
+
+        lock.readLock().lock();
+        try {
+            int[] ids = new int[tokens.size()];
+            int i = 0;
+            for (String token : tokens) {
+                Integer id = tokenIds.get(token);
+                if (id == null) {
+                    return null;
+                }
+                ids[i++] = id;
+            }
+            Arrays.sort(ids);
+            int[] matches = termKeys.get(termKey(ids));
+            return matches != null && matches.length == 1 ? ingredients.get(matches[0]) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds ingredients sharing at least {@code minOverlap} trigrams with the tokens and
+     * scores each by the best Jaccard similarity of the tokens against its name or aliases.
+     *
+     * @return candidates with a positive score, in no particular order
+     */
+    public List<Candidate> findCandidates(Set<String> tokens, int minOverlap) {
+        long[] queryTrigrams = trigramsOf(Collections.singletonList(String.join(" ", tokens)));
+        if (queryTrigrams.length == 0) {
+            return Collections.emptyList();
+        }
+
+        lock.readLock().lock();
+        try {
+            QueryTokens queryTokens = lookupTokens(tokens);
+            int[] overlap = new int[ingredients.size()];
+            int[] touched = new int[16];
+            int touchedCount = 0;
+            for (long trigram : queryTrigrams) {
+                for (int ordinal : postings.getOrDefault(trigram, EMPTY)) {
+                    if (overlap[ordinal]++ == 0) {
+                        if (touchedCount == touched.length) {
+                            touched = Arrays.copyOf(touched, touchedCount * 2);
+                        }
+                        touched[touchedCount++] = ordinal;
+                    }
+                }
+            }
+
+            List<Candidate> result = new ArrayList<>();
+            for (int i = 0; i < touchedCount; i++) {
+                int ordinal = touched[i];
+                if (overlap[ordinal] < minOverlap) continue;
+
+                int[][] terms = termTokens.get(ordinal);
+                double bestScore = 0;
+                boolean viaAlias = false;
+                for (int t = 0; t < terms.length; t++) {
+                    double score = jaccard(queryTokens, tokens.size(), terms[t]);
+                    if (score > bestScore) {
+                        bestScore = score;
+                        viaAlias = t > 0;
+                    }
+                }
+                if (bestScore > 0) {
+                    result.add(new Candidate(ingredients.get(ordinal), bestScore, viaAlias));
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param queryTokens resolved query tokens
+     * @param querySize   number of distinct query tokens, including unresolved ones
+     */
+    private static double jaccard(QueryTokens queryTokens, int querySize, int[] termTokens) {
+        if (querySize == 0 && termTokens.length == 0) return 0;
+        int[] ids = queryTokens.ids;
+        int intersection = 0;
+        double weightedIntersection = 0;
+        int i = 0;
+        int j = 0;
+        while (i < ids.length && j < termTokens.length) {
+            if (ids[i] < termTokens[j]) {
+                i++;
+            } else if (ids[i] > termTokens[j]) {
+                j++;
+            } else {
+                intersection++;
+                weightedIntersection += queryTokens.weights[i];
+                i++;
+                j++;
+            }
+        }
+        return weightedIntersection / (querySize + termTokens.length - intersection);
+    }
+
+    private int[] internTokens(Set<String> tokens) {
+        int[] ids = new int[tokens.size()];
+        int i = 0;
+        for (String token : tokens) {
+            Integer id = tokenIds.get(token);
+            if (id == null) {
+                id = tokenIds.size();
+                tokenIds.put(token, id);
+                vocabulary.add(token, id);
+            }
+            ids[i++] = id;
+        }
+        Arrays.sort(ids);
+        return ids;
+    }
+
+    /**
+     * Resolves query tokens to ids, correcting unknown ones through the vocabulary tree.
+     * Tokens resolving to the same id keep the best weight.
+     */
+    private QueryTokens lookupTokens(Set<String> tokens) {
+        Map<Integer, Double> weights = new HashMap<>();
+        for (String token : tokens) {
+            Integer id = tokenIds.get(token);
+            double weight = 1.0;
+            if (id == null) {
+                TokenBkTree.Match match = vocabulary.nearest(token, maxTypoDistance(token.length()));
+                if (match == null) continue;
+                id = match.getTermId();
+                weight = 1.0 - (double) match.getDistance() / token.length();
+            }
+            weights.merge(id, weight, Math::max);
+        }
+
+        int[] ids = new int[weights.size()];
+        int i = 0;
+        for (int id : weights.keySet()) {
+            ids[i++] = id;
+        }
+        Arrays.sort(ids);
+        double[] sortedWeights = new double[ids.length];
+        for (i = 0; i < ids.length; i++) {
+            sortedWeights[i] = weights.get(ids[i]);
+        }
+        return new QueryTokens(ids, sortedWeights);
+    }
+
+    /**
+     * Short tokens are too ambiguous to correct ("sol" vs "sok"), longer ones
+     * tolerate a typo or an inflected ending.
+     */
+    private static int maxTypoDistance(int tokenLength) {
+        if (tokenLength < 5) return 0;
+        if (tokenLength < 8) return 1;
+        return 2;
+    }
+
+    private void unlink(int ordinal) {
+        for (int[] tokens : termTokens.get(ordinal)) {
+            if (tokens.length == 0) continue;
+            termKeys.computeIfPresent(termKey(tokens), (key, current) -> {
+                int[] remaining = without(current, ordinal);
+                return remaining.length == 0 ? null : remaining;
+            });
+        }
+        for (long trigram : ingredientTrigrams.get(ordinal)) {
+            int[] posting = without(postings.getOrDefault(trigram, EMPTY), ordinal);
+            if (posting.length == 0) {
+                postings.remove(trigram);
+            } else {
+                postings.put(trigram, posting);
+            }
+        }
+    }
+
+    /**
+     * Smallest edit distance between the lower-cased input and the ingredient's name or
+     * aliases, diacritics kept. Breaks ties between candidates whose stems are equal,
+     * e.g. "mąki" is closer to "mąka" than to "mak".
+     */
+    public static int surfaceDistance(String inputText, Ingredient ingredient) {
+        char[] input = inputText.trim().toLowerCase().toCharArray();
+        int best = Integer.MAX_VALUE;
+        for (String term : termsOf(ingredient)) {
+            best = Math.min(best, TokenBkTree.distance(input, term.trim().toLowerCase().toCharArray()));
+        }
+        return best;
+    }
+
+    private static String termKey(int[] sortedTokenIds) {
+        return Arrays.toString(sortedTokenIds);
+    }
+
+    private static List<String> termsOf(Ingredient ingredient) {
+        List<String> terms = new ArrayList<>();
+        terms.add(ingredient.getName() != null ? ingredient.getName() : "");
+        if (ingredient.getAliases() != null) {
+            for (IngredientAlias alias : ingredient.getAliases()) {
+                if (Boolean.TRUE.equals(alias.isDeleted()) || alias.getAliasName() == null) continue;
+                terms.add(alias.getAliasName());
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * @return distinct packed trigrams of all words in the given texts, sorted
+     */
+    private static long[] trigramsOf(Collection<String> texts) {
+        Set<Long> trigrams = new HashSet<>();
+        for (String text : texts) {
+            String folded = PolishTextFolder.fold(text);
+            int start = -1;
+            for (int i = 0; i <= folded.length(); i++) {
+                boolean wordChar = i < folded.length() && Character.isLetterOrDigit(folded.charAt(i));
+                if (wordChar && start < 0) {
+                    start = i;
+                } else if (!wordChar && start >= 0) {
+                    addWordTrigrams(folded, start, i, trigrams);
+                    start = -1;
+                }
+            }
+        }
+
+        long[] result = new long[trigrams.size()];
+        int i = 0;
+        for (long trigram : trigrams) {
+            result[i++] = trigram;
+        }
+        Arrays.sort(result);
+        return result;
+    }
+
+    private static void addWordTrigrams(String text, int start, int end, Set<Long> trigrams) {
+        if (end - start < 2) return;
+        // Padded word: ' ' + text[start, end) + ' '
+        for (int i = start - 1; i <= end - 2; i++) {
+            char c0 = i < start ? ' ' : text.charAt(i);
+            char c1 = text.charAt(i + 1);
+            char c2 = i + 2 >= end ? ' ' : text.charAt(i + 2);
+            trigrams.add(((long) c0 << 32) | ((long) c1 << 16) | c2);
+        }
+    }
+
+    private static int[] with(int[] posting, int ordinal) {
+        int pos = Arrays.binarySearch(posting, ordinal);
+        if (pos >= 0) return posting;
+        int insertAt = -pos - 1;
+        int[] copy = new int[posting.length + 1];
+        System.arraycopy(posting, 0, copy, 0, insertAt);
+        copy[insertAt] = ordinal;
+        System.arraycopy(posting, insertAt, copy, insertAt + 1, posting.length - insertAt);
+        return copy;
+    }
+
+    private static int[] without(int[] posting, int ordinal) {
+        int pos = Arrays.binarySearch(posting, ordinal);
+        if (pos < 0) return posting;
+        int[] copy = new int[posting.length - 1];
+        System.arraycopy(posting, 0, copy, 0, pos);
+        System.arraycopy(posting, pos + 1, copy, pos, posting.length - pos - 1);
+        return copy;
+    }
+
+    private static final class QueryTokens {
+        private final int[] ids;
+        private final double[] weights;
+
+        private QueryTokens(int[] ids, double[] weights) {
+            this.ids = ids;
+            this.weights = weights;
+        }
+    }
+
+    public static class Candidate {
+        private final Ingredient ingredient;
+        private final double score;
+        private final boolean viaAlias;
+
+        private Candidate(Ingredient ingredient, double score, boolean viaAlias) {
+            this.ingredient = ingredient;
+            this.score = score;
+            this.viaAlias = viaAlias;
+        }
+
+        public Ingredient getIngredient() {
+            return ingredient;
+        }
+
+        public double getScore() {
+            return score;
+        }
+
+        public boolean isViaAlias() {
+            return viaAlias;
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package com.bervan.cookbook.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Per-ingredient reference counters. Every ingredient id gets a dense, stable int ordinal
+ * through an open-addressing hash table keyed by the two longs of the id, so callers can
+ * keep ingredient sets as sorted {@code int[]} and updates neither box nor allocate. Each
+ * ordinal holds one count per {@link Source}. Changed ordinals are remembered until they
+ * are drained for persistence. Not thread-safe; callers synchronize.
+ */
+public class IngredientUsageCounters {
+    public enum Source {
+        RECIPE, DIET, CART
+    }
+
+    private static final int SOURCES = Source.values().length;
+    private static final float MAX_LOAD = 0.6f;
+
+    // Hash slot -> ordinal + 1, 0 when free
+    private int[] slots;
+    // Indexed by ordinal
+    private long[] mostSignificant;
+    private long[] leastSignificant;
+    // counts[ordinal * SOURCES + source.ordinal()]
+    private int[] counts;
+    private final BitSet dirty = new BitSet();
+    private int size;
+    private long version;
+
+    public IngredientUsageCounters(int expectedSize) {
+        int capacity = Math.max(expectedSize, 8);
+        slots = new int[tableSizeFor(capacity)];
+        mostSignificant = new long[capacity];
+        leastSignificant = new long[capacity];
+        counts = new int[capacity * SOURCES];
+    }
+
+    /**
+     * @return ordinal of the ingredient, assigned on first use and never changed
+     */
+    public int ordinalOf(UUID ingredientId) {
+        int ordinal = find(ingredientId);
+        return ordinal >= 0 ? ordinal : insert(ingredientId);
+    }
+
+    public UUID idOf(int ordinal) {
+        return new UUID(mostSignificant[ordinal], leastSignificant[ordinal]);
+    }
+
+    public void add(int ordinal, Source source, int delta) {
+        if (delta == 0) {
+            return;
+        }
+        int index = ordinal * SOURCES + source.ordinal();
+        counts[index] = Math.max(0, counts[index] + delta);
+        dirty.set(ordinal);
+        version++;
+    }
+
+    /**
+     * Sets a count without marking it dirty, used when loading persisted values.
+     */
+    public void set(int ordinal, Source source, int count) {
+        counts[ordinal * SOURCES + source.ordinal()] = count;
+        version++;
+    }
+
+    /**
+     * Applies the difference between an owner's previous and current ingredients. Both are
+     * sorted ordinals, an ordinal repeated once per reference, so one merge walk finds the
+     * removed and the added references.
+     */
+    public void applyDifference(Source source, int[] previous, int[] current) {
+        int i = 0;
+        int j = 0;
+        while (i < previous.length || j < current.length) {
+            if (j == current.length || (i < previous.length && previous[i] < current[j])) {
+                add(previous[i++], source, -1);
+            } else if (i == previous.length || current[j] < previous[i]) {
+                add(current[j++], source, 1);
+            } else {
+                i++;
+                j++;
+            }
+        }
+    }
+
+    /**
+     * Sets the source's count of every ingredient to its number of occurrences in
+     * {@code references}; only ingredients whose count changes are marked dirty.
+     */
+    public void reconcile(Source source, int[] references) {
+        int[] actual = new int[size];
+        for (int ordinal : references) {
+            actual[ordinal]++;
+        }
+        for (int ordinal = 0; ordinal < size; ordinal++) {
+            add(ordinal, source, actual[ordinal] - get(ordinal, source));
+        }
+    }
+
+    public int get(int ordinal, Source source) {
+        return counts[ordinal * SOURCES + source.ordinal()];
+    }
+
+    public int get(UUID ingredientId, Source source) {
+        int ordinal = find(ingredientId);
+        return ordinal < 0 ? 0 : get(ordinal, source);
+    }
+
+    public long total(UUID ingredientId) {
+        int ordinal = find(ingredientId);
+        return ordinal < 0 ? 0 : count(ordinal, null);
+    }
+
+    public void markDirty(UUID ingredientId) {
+        int ordinal = find(ingredientId);
+        if (ordinal >= 0) {
+            dirty.set(ordinal);
+        }
+    }
+
+    /**
+     * Incremented on every change; readers compare it to decide whether derived rankings are stale.
+     */
+    public long version() {
+        return version;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Calls {@code visitor} with every changed entry and forgets the changes.
+     */
+    public void drainDirty(DirtyVisitor visitor) {
+        for (int ordinal = dirty.nextSetBit(0); ordinal >= 0; ordinal = dirty.nextSetBit(ordinal + 1)) {
+            int base = ordinal * SOURCES;
+            visitor.visit(idOf(ordinal),
+                    counts[base + Source.RECIPE.ordinal()],
+                    counts[base + Source.DIET.ordinal()],
+                    counts[base + Source.CART.ordinal()]);
+        }
+        dirty.clear();
+    }
+
+    /**
+     * @param source counted source, or null for the total over all sources
+     * @return ids of the {@code limit} most referenced ingredients, most used first
+     */
+    public List<UUID> mostUsed(Source source, int limit) {
+        List<Integer> ordinals = new ArrayList<>();
+        for (int ordinal = 0; ordinal < size; ordinal++) {
+            if (count(ordinal, source) > 0) {
+                ordinals.add(ordinal);
+            }
+        }
+        ordinals.sort((a, b) -> Long.compare(count(b, source), count(a, source)));
+
+        List<UUID> result = new ArrayList<>(Math.min(limit, ordinals.size()));
+        for (int i = 0; i < ordinals.size() && i < limit; i++) {
+            result.add(idOf(ordinals.get(i)));
+        }
+        return result;
+    }
+
+    public interface DirtyVisitor {
+        void visit(UUID ingredientId, int recipeCount, int dietCount, int cartCount);
+    }
+
+    private long count(int ordinal, Source source) {
+        if (source != null) {
+            return counts[ordinal * SOURCES + source.ordinal()];
+        }
+        long total = 0;
+        for (int i = 0; i < SOURCES; i++) {
+            total += counts[ordinal * SOURCES + i];
+        }
+        return total;
+    }
+
+    private int find(UUID id) {
+        long msb = id.getMostSignificantBits();
+        long lsb = id.getLeastSignificantBits();
+        int mask = slots.length - 1;
+        for (int slot = mix(msb ^ lsb) & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+            int ordinal = slots[slot] - 1;
+            if (mostSignificant[ordinal] == msb && leastSignificant[ordinal] == lsb) {
+                return ordinal;
+            }
+        }
+        return -1;
+    }
+
+    private int insert(UUID id) {
+        if (size + 1 > slots.length * MAX_LOAD) {
+            rehash(slots.length * 2);
+        }
+        int ordinal = size++;
+        if (ordinal == mostSignificant.length) {
+            int capacity = ordinal * 2;
+            mostSignificant = Arrays.copyOf(mostSignificant, capacity);
+            leastSignificant = Arrays.copyOf(leastSignificant, capacity);
+            counts = Arrays.copyOf(counts, capacity * SOURCES);
+        }
+        mostSignificant[ordinal] = id.getMostSignificantBits();
+        leastSignificant[ordinal] = id.getLeastSignificantBits();
+        place(ordinal);
+        return ordinal;
+    }
+
+    private void rehash(int tableSize) {
+        slots = new int[tableSize];
+        for (int ordinal = 0; ordinal < size; ordinal++) {
+            place(ordinal);
+        }
+    }
+
+    private void place(int ordinal) {
+        int mask = slots.length - 1;
+        int slot = mix(mostSignificant[ordinal] ^ leastSignificant[ordinal]) & mask;
+        while (slots[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        slots[slot] = ordinal + 1;
+    }
+
+    private static int tableSizeFor(int expectedSize) {
+        int needed = (int) Math.ceil(expectedSize / MAX_LOAD);
+        return Integer.highestOneBit(needed - 1) << 1;
+    }
+
+    private static int mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return (int) hash;
+    }
+}
@@ -0,0 +1,222 @@
+package com.bervan.cookbook.index;
+
+import com.bervan.cookbook.model.Ingredient;
+import com.bervan.cookbook.model.IngredientAlias;
+import com.bervan.cookbook.text.PolishTokenizer;
+
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded LRU cache of normalization results keyed by the cleaned input text.
+ * Unresolved inputs are cached as well. Entries are indexed by the ingredient they
+ * resolved to and by the stems of their key, so an ingredient change only evicts
+ * the entries it could affect, found by lookups rather than a scan: those resolved
+ * to that ingredient and those (resolved or not) sharing a stem with its name or
+ * aliases. A negative entry that only a typo correction would now resolve stays
+ * until it ages out.
+ * <p>
+ * Results computed before an invalidation are not stored if that invalidation
+ * affects them: callers take a {@link #generation()} before resolving and pass it
+ * back to {@link #put}, which checks the invalidations made since.
+ */
+public class NormalizationCache {
+    // Invalidations remembered for put; results older than that are dropped
+    private static final int INVALIDATION_HISTORY = 256;
+
+    private final Map<String, Entry> entries;
+    // Ingredient id -> keys resolved to it, stem -> keys containing it
+    private final Map<UUID, Set<String>> keysByIngredient = new HashMap<>();
+    private final Map<String, Set<String>> keysByStem = new HashMap<>();
+    private final Deque<Invalidation> invalidations = new ArrayDeque<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private long generation;
+
+    public NormalizationCache(int maxSize) {
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > maxSize) {
+                    unindex(eldest.getKey(), eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * @return cached result, {@code Optional.empty()} for a cached miss, or null when not cached
+     */
+    public Optional<Ingredient> get(String key) {
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(key);
+        }
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return Optional.ofNullable(entry.ingredient);
+    }
+
+    public synchronized long generation() {
+        return generation;
+    }
+
+    public void put(String key, Ingredient ingredient, long generation) {
+        Entry entry = new Entry(ingredient, PolishTokenizer.tokenize(key));
+        synchronized (this) {
+            if (isStale(entry, generation)) {
+                return;
+            }
+            Entry previous = entries.put(key, entry);
+            if (previous != null) {
+                unindex(key, previous);
+            }
+            if (ingredient != null) {
+                keysByIngredient.computeIfAbsent(ingredient.getId(), id -> new HashSet<>()).add(key);
+            }
+            for (String stem : entry.stems) {
+                keysByStem.computeIfAbsent(stem, s -> new HashSet<>()).add(key);
+            }
+        }
+    }
+
+    /**
+     * @param ingredient changed ingredient, null when only the id is known (deletion)
+     */
+    public void invalidate(UUID ingredientId, Ingredient ingredient) {
+        Set<String> stems = new HashSet<>();
+        if (ingredient != null) {
+            if (ingredient.getName() != null) {
+                stems.addAll(PolishTokenizer.tokenize(ingredient.getName()));
+            }
+            if (ingredient.getAliases() != null) {
+                for (IngredientAlias alias : ingredient.getAliases()) {
+                    if (alias.getAliasName() != null) {
+                        stems.addAll(PolishTokenizer.tokenize(alias.getAliasName()));
+                    }
+                }
+            }
+        }
+
+        synchronized (this) {
+            generation++;
+            invalidations.addLast(new Invalidation(ingredientId, stems));
+            if (invalidations.size() > INVALIDATION_HISTORY) {
+                invalidations.removeFirst();
+            }
+
+            Set<String> affected = new HashSet<>(keysByIngredient.getOrDefault(ingredientId, Collections.emptySet()));
+            for (String stem : stems) {
+                affected.addAll(keysByStem.getOrDefault(stem, Collections.emptySet()));
+            }
+            for (String key : affected) {
+                Entry entry = entries.remove(key);
+                if (entry != null) {
+                    unindex(key, entry);
+                }
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        generation++;
+        invalidations.clear();
+        entries.clear();
+        keysByIngredient.clear();
+        keysByStem.clear();
+    }
+
+    public Stats getStats() {
+        int size;
+        synchronized (this) {
+            size = entries.size();
+        }
+        return new Stats(hits.sum(), misses.sum(), size);
+    }
+
+    /**
+     * True when an invalidation made after {@code generation} affects the entry, or when
+     * too many were made to tell.
+     */
+    private boolean isStale(Entry entry, long generation) {
+        long missed = this.generation - generation;
+        if (missed == 0) {
+            return false;
+        }
+        if (missed > invalidations.size()) {
+            return true;
+        }
+        Iterator<Invalidation> newestFirst = invalidations.descendingIterator();
+        for (long i = 0; i < missed; i++) {
+            Invalidation invalidation = newestFirst.next();
+            if ((entry.ingredient != null && invalidation.ingredientId.equals(entry.ingredient.getId()))
+                    || !Collections.disjoint(entry.stems, invalidation.stems)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void unindex(String key, Entry entry) {
+        if (entry.ingredient != null) {
+            removeKey(keysByIngredient, entry.ingredient.getId(), key);
+        }
+        for (String stem : entry.stems) {
+            removeKey(keysByStem, stem, key);
+        }
+    }
+
+    private static <K> void removeKey(Map<K, Set<String>> keysBy, K by, String key) {
+        Set<String> keys = keysBy.get(by);
+        if (keys != null && keys.remove(key) && keys.isEmpty()) {
+            keysBy.remove(by);
+        }
+    }
+
+    private record Invalidation(UUID ingredientId, Set<String> stems) {
+    }
+
+    private static final class Entry {
+        private final Ingredient ingredient;
+        private final Set<String> stems;
+
+        private Entry(Ingredient ingredient, Set<String> stems) {
+            this.ingredient = ingredient;
+            this.stems = stems;
+        }
+    }
+
+    public static class Stats {
+        private final long hitCount;
+        private final long missCount;
+        private final int size;
+
+        private Stats(long hitCount, long missCount, int size) {
+            this.hitCount = hitCount;
+            this.missCount = missCount;
+            this.size = size;
+        }
+
+        public long getHitCount() {
+            return hitCount;
+        }
+
+        public long getMissCount() {
+            return missCount;
+        }
+
+        public int getSize() {
+            return size;
+        }
+
+        public double getHitRate() {
+            long total = hitCount + missCount;
+            return total == 0 ? 0 : (double) hitCount / total;
+        }
+    }
+}
@@ -0,0 +1,346 @@
+package com.bervan.cookbook.index;
+
+import com.bervan.cookbook.model.Ingredient;
+import com.bervan.cookbook.model.Recipe;
+import com.bervan.cookbook.model.RecipeIngredient;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Ingredient -> recipe posting-list index used by fridge search.
+ * Recipes and ingredients are addressed by dense int ordinals; only required
+ * (non-optional, non-deleted) recipe ingredients are indexed. Each recipe's
+ * required set is also kept as an {@link IngredientBitmap}, so coverage is a
+ * popcount of {@code fridge AND recipe}. Owner ids are copied when a recipe is
+ * indexed, so visibility checks never touch the (possibly lazy) entity graph of
+ * recipes whose session closed long ago.
+ * <p>
+ * Readers work on an immutable {@link Snapshot} and never block. Writers apply
+ * per-recipe deltas one at a time and publish a new snapshot in which only the
+ * touched posting lists are copied. The ingredient id -> ordinal map is the one
+ * structure shared by all snapshots: it is append-only (an ordinal is never
+ * reassigned or removed), and a snapshot ignores ordinals at or past its own
+ * ingredient count, so entries added after it was published are invisible to it.
+ */
+public class RecipeMatchIndex {
+    private static final int[] EMPTY = new int[0];
+    private static final UUID[] NO_OWNERS = new UUID[0];
+
+    private final Map<UUID, Integer> recipeOrdinals = new ConcurrentHashMap<>();
+    // Append-only, written by the single writer; see class comment
+    private final Map<UUID, Integer> ingredientOrdinals = new ConcurrentHashMap<>();
+    private final Deque<Integer> freeRecipeOrdinals = new ArrayDeque<>();
+    private volatile Snapshot snapshot;
+
+    private RecipeMatchIndex() {
+    }
+
+    public static RecipeMatchIndex build(Collection<Recipe> source) {
+        RecipeMatchIndex index = new RecipeMatchIndex();
+        List<Recipe> recipes = new ArrayList<>(source.size());
+        List<int[]> required = new ArrayList<>(source.size());
+        List<UUID[]> owners = new ArrayList<>(source.size());
+        List<Ingredient> ingredients = new ArrayList<>();
+
+        for (Recipe recipe : source) {
+            int[] ordinals = index.resolveRequired(recipe, ingredients);
+            if (ordinals.length == 0) continue;
+
+            index.recipeOrdinals.put(recipe.getId(), recipes.size());
+            recipes.add(recipe);
+            required.add(ordinals);
+            owners.add(ownerIds(recipe));
+        }
+
+        int[] postingSizes = new int[ingredients.size()];
+        for (int[] ordinals : required) {
+            for (int ingredientOrdinal : ordinals) {
+                postingSizes[ingredientOrdinal]++;
+            }
+        }
+
+        int[][] postings = new int[ingredients.size()][];
+        for (int i = 0; i < postings.length; i++) {
+            postings[i] = new int[postingSizes[i]];
+        }
+
+        // Recipes are visited in ordinal order, so every posting list ends up sorted
+        int[] fill = new int[ingredients.size()];
+        int[] requiredCounts = new int[recipes.size()];
+        IngredientBitmap[] requiredSets = new IngredientBitmap[recipes.size()];
+        for (int recipeOrdinal = 0; recipeOrdinal < required.size(); recipeOrdinal++) {
+            int[] ordinals = required.get(recipeOrdinal);
+            requiredCounts[recipeOrdinal] = ordinals.length;
+            requiredSets[recipeOrdinal] = IngredientBitmap.of(ordinals);
+            for (int ingredientOrdinal : ordinals) {
+                postings[ingredientOrdinal][fill[ingredientOrdinal]++] = recipeOrdinal;
+            }
+        }
+
+        index.snapshot = new Snapshot(
+                recipes.toArray(new Recipe[0]),
+                requiredCounts,
+                requiredSets,
+                owners.toArray(new UUID[0][]),
+                ingredients.toArray(new Ingredient[0]),
+                postings,
+                Collections.unmodifiableMap(index.ingredientOrdinals));
+        return index;
+    }
+
+    public Snapshot snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Inserts or replaces a single recipe. Deleted recipes and recipes without
+     * required ingredients are removed from the index.
+     */
+    public synchronized void put(Recipe recipe) {
+        Snapshot current = snapshot;
+        List<Ingredient> ingredients = new ArrayList<>(Arrays.asList(current.ingredients));
+        int[] required = Boolean.TRUE.equals(recipe.isDeleted()) ? EMPTY : resolveRequired(recipe, ingredients);
+        if (required.length == 0) {
+            remove(recipe.getId());
+            return;
+        }
+
+        Integer existing = recipeOrdinals.get(recipe.getId());
+        int recipeOrdinal;
+        if (existing != null) {
+            recipeOrdinal = existing;
+        } else if (!freeRecipeOrdinals.isEmpty()) {
+            recipeOrdinal = freeRecipeOrdinals.pop();
+        } else {
+            recipeOrdinal = current.recipes.length;
+        }
+        int[] previous = existing != null ? current.requiredSets[recipeOrdinal].toArray() : EMPTY;
+
+        int recipeCapacity = Math.max(current.recipes.length, recipeOrdinal + 1);
+        Recipe[] recipes = Arrays.copyOf(current.recipes, recipeCapacity);
+        int[] requiredCounts = Arrays.copyOf(current.requiredCounts, recipeCapacity);
+        IngredientBitmap[] requiredSets = Arrays.copyOf(current.requiredSets, recipeCapacity);
+        UUID[][] owners = Arrays.copyOf(current.owners, recipeCapacity);
+        int[][] postings = Arrays.copyOf(current.postings, ingredients.size());
+        for (int i = current.postings.length; i < postings.length; i++) {
+            postings[i] = EMPTY;
+        }
+
+        for (int ingredientOrdinal : previous) {
+            if (Arrays.binarySearch(required, ingredientOrdinal) < 0) {
+                postings[ingredientOrdinal] = without(postings[ingredientOrdinal], recipeOrdinal);
+            }
+        }
+        for (int ingredientOrdinal : required) {
+            if (Arrays.binarySearch(previous, ingredientOrdinal) < 0) {
+                postings[ingredientOrdinal] = with(postings[ingredientOrdinal], recipeOrdinal);
+            }
+        }
+
+        recipes[recipeOrdinal] = recipe;
+        requiredCounts[recipeOrdinal] = required.length;
+        requiredSets[recipeOrdinal] = IngredientBitmap.of(required);
+        owners[recipeOrdinal] = ownerIds(recipe);
+
+        snapshot = new Snapshot(recipes, requiredCounts, requiredSets, owners,
+                ingredients.toArray(new Ingredient[0]), postings, current.ingredientOrdinals);
+        recipeOrdinals.put(recipe.getId(), recipeOrdinal);
+    }
+
+    public synchronized void remove(UUID recipeId) {
+        Integer recipeOrdinal = recipeOrdinals.remove(recipeId);
+        if (recipeOrdinal == null) {
+            return;
+        }
+
+        Snapshot current = snapshot;
+        Recipe[] recipes = current.recipes.clone();
+        int[] requiredCounts = current.requiredCounts.clone();
+        IngredientBitmap[] requiredSets = current.requiredSets.clone();
+        UUID[][] owners = current.owners.clone();
+        int[][] postings = current.postings.clone();
+
+        for (int ingredientOrdinal : requiredSets[recipeOrdinal].toArray()) {
+            postings[ingredientOrdinal] = without(postings[ingredientOrdinal], recipeOrdinal);
+        }
+        recipes[recipeOrdinal] = null;
+        requiredCounts[recipeOrdinal] = 0;
+        requiredSets[recipeOrdinal] = IngredientBitmap.EMPTY;
+        owners[recipeOrdinal] = NO_OWNERS;
+
+        snapshot = new Snapshot(recipes, requiredCounts, requiredSets, owners,
+                current.ingredients, postings, current.ingredientOrdinals);
+        freeRecipeOrdinals.push(recipeOrdinal);
+    }
+
+    private int[] resolveRequired(Recipe recipe, List<Ingredient> ingredients) {
+        if (Boolean.TRUE.equals(recipe.isDeleted()) || recipe.getRecipeIngredients() == null) {
+            return EMPTY;
+        }
+
+        int[] ordinals = new int[recipe.getRecipeIngredients().size()];
+        int count = 0;
+        for (RecipeIngredient ri : recipe.getRecipeIngredients()) {
+            if (Boolean.TRUE.equals(ri.getOptional()) || Boolean.TRUE.equals(ri.isDeleted())) continue;
+            Ingredient ingredient = ri.getIngredient();
+            if (ingredient == null) continue;
+
+            Integer ordinal = ingredientOrdinals.get(ingredient.getId());
+            if (ordinal == null) {
+                ordinal = ingredients.size();
+                ingredients.add(ingredient);
+                ingredientOrdinals.put(ingredient.getId(), ordinal);
+            } else {
+                // Keep the freshest entity so renames show up in results
+                ingredients.set(ordinal, ingredient);
+            }
+            ordinals[count++] = ordinal;
+        }
+        return distinctSorted(ordinals, count);
+    }
+
+    private static UUID[] ownerIds(Recipe recipe) {
+        if (recipe.getOwners() == null || recipe.getOwners().isEmpty()) {
+            return NO_OWNERS;
+        }
+        return recipe.getOwners().stream()
+                .map(owner -> owner.getId())
+                .filter(Objects::nonNull)
+                .toArray(UUID[]::new);
+    }
+
+    private static int[] distinctSorted(int[] values, int length) {
+        if (length == 0) return EMPTY;
+        int[] sorted = Arrays.copyOf(values, length);
+        Arrays.sort(sorted);
+        int unique = 1;
+        for (int i = 1; i < sorted.length; i++) {
+            if (sorted[i] != sorted[unique - 1]) {
+                sorted[unique++] = sorted[i];
+            }
+        }
+        return unique == sorted.length ? sorted : Arrays.copyOf(sorted, unique);
+    }
+
+    private static int[] with(int[] posting, int recipeOrdinal) {
+        int pos = Arrays.binarySearch(posting, recipeOrdinal);
+        if (pos >= 0) return posting;
+        int insertAt = -pos - 1;
+        int[] copy = new int[posting.length + 1];
+        System.arraycopy(posting, 0, copy, 0, insertAt);
+        copy[insertAt] = recipeOrdinal;
+        System.arraycopy(posting, insertAt, copy, insertAt + 1, posting.length - insertAt);
+        return copy;
+    }
+
+    private static int[] without(int[] posting, int recipeOrdinal) {
+        int pos = Arrays.binarySearch(posting, recipeOrdinal);
+        if (pos < 0) return posting;
+        int[] copy = new int[posting.length - 1];
+        System.arraycopy(posting, 0, copy, 0, pos);
+        System.arraycopy(posting, pos + 1, copy, pos, posting.length - pos - 1);
+        return copy;
+    }
+
+    public static class Snapshot {
+        private final Recipe[] recipes;
+        private final int[] requiredCounts;
+        private final IngredientBitmap[] requiredSets;
+        private final UUID[][] owners;
+        private final Ingredient[] ingredients;
+        private final int[][] postings;
+        // Shared append-only map, read-only view; only ordinals below ingredients.length belong to this snapshot
+        private final Map<UUID, Integer> ingredientOrdinals;
+
+        private Snapshot(Recipe[] recipes, int[] requiredCounts, IngredientBitmap[] requiredSets, UUID[][] owners,
+                         Ingredient[] ingredients, int[][] postings, Map<UUID, Integer> ingredientOrdinals) {
+            this.recipes = recipes;
+            this.requiredCounts = requiredCounts;
+            this.requiredSets = requiredSets;
+            this.owners = owners;
+            this.ingredients = ingredients;
+            this.postings = postings;
+            this.ingredientOrdinals = ingredientOrdinals;
+        }
+
+        /**
+         * @return number of recipe slots; removed recipes leave a null slot until reused
+         */
+        public int size() {
+            return recipes.length;
+        }
+
+        public Recipe getRecipe(int recipeOrdinal) {
+            return recipes[recipeOrdinal];
+        }
+
+        public int getRequiredCount(int recipeOrdinal) {
+            return requiredCounts[recipeOrdinal];
+        }
+
+        public IngredientBitmap getRequiredSet(int recipeOrdinal) {
+            return requiredSets[recipeOrdinal];
+        }
+
+        /**
+         * @return true when the user is one of the recipe's owners as of indexing
+         */
+        public boolean isOwnedBy(int recipeOrdinal, UUID userId) {
+            if (userId == null) {
+                return false;
+            }
+            for (UUID ownerId : owners[recipeOrdinal]) {
+                if (userId.equals(ownerId)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        public int getMatchCount(int recipeOrdinal, IngredientBitmap fridge) {
+            return requiredSets[recipeOrdinal].andCardinality(fridge);
+        }
+
+        public Ingredient getIngredient(int ingredientOrdinal) {
+            return ingredients[ingredientOrdinal];
+        }
+
+        /**
+         * @return ingredient ordinal or -1 when no recipe in this snapshot requires the ingredient
+         */
+        public int getIngredientOrdinal(UUID ingredientId) {
+            Integer ordinal = ingredientOrdinals.get(ingredientId);
+            return ordinal != null && ordinal < ingredients.length ? ordinal : -1;
+        }
+
+        public int[] getPostings(int ingredientOrdinal) {
+            return ingredientOrdinal >= 0 && ingredientOrdinal < postings.length ? postings[ingredientOrdinal] : EMPTY;
+        }
+
+        /**
+         * Collects the distinct recipes sharing at least one of the given ingredients.
+         * Recipes sharing no ingredient with the input are never visited.
+         */
+        public int[] collectCandidates(int[] ingredientOrdinals) {
+            long[] seen = new long[(recipes.length + 63) >>> 6];
+            int[] touched = new int[16];
+            int touchedCount = 0;
+
+            for (int ingredientOrdinal : ingredientOrdinals) {
+                for (int recipeOrdinal : getPostings(ingredientOrdinal)) {
+                    long bit = 1L << recipeOrdinal;
+                    if ((seen[recipeOrdinal >>> 6] & bit) == 0) {
+                        seen[recipeOrdinal >>> 6] |= bit;
+                        if (touchedCount == touched.length) {
+                            touched = Arrays.copyOf(touched, touchedCount * 2);
+                        }
+                        touched[touchedCount++] = recipeOrdinal;
+                    }
+                }
+            }
+
+            return Arrays.copyOf(touched, touchedCount);
+        }
+    }
+}
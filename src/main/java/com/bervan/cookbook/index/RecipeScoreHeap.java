@@ -0,0 +1,109 @@
+package com.bervan.cookbook.index;
+
+/**
+ * Bounded min-heap keeping the best {@code capacity} recipe ordinals ranked by
+ * match count, then coverage, then average rating (all descending). Scores are
+ * kept in parallel primitive arrays so ranking allocates nothing per candidate.
+ */
+public class RecipeScoreHeap {
+    private final int capacity;
+    private final int[] ordinals;
+    private final int[] matchCounts;
+    private final double[] coverages;
+    private final double[] ratings;
+    private int size;
+
+    public RecipeScoreHeap(int capacity) {
+        this.capacity = capacity;
+        this.ordinals = new int[capacity];
+        this.matchCounts = new int[capacity];
+        this.coverages = new double[capacity];
+        this.ratings = new double[capacity];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void offer(int ordinal, int matchCount, double coverage, double rating) {
+        if (capacity == 0) {
+            return;
+        }
+        if (size < capacity) {
+            set(size, ordinal, matchCount, coverage, rating);
+            siftUp(size++);
+        } else if (compare(ordinal, matchCount, coverage, rating, 0) > 0) {
+            set(0, ordinal, matchCount, coverage, rating);
+            siftDown(0);
+        }
+    }
+
+    public void addAll(RecipeScoreHeap other) {
+        for (int i = 0; i < other.size; i++) {
+            offer(other.ordinals[i], other.matchCounts[i], other.coverages[i], other.ratings[i]);
+        }
+    }
+
+    /**
+     * Drains the heap and returns the kept ordinals best first.
+     */
+    public int[] drainSorted() {
+        int[] sorted = new int[size];
+        for (int i = sorted.length - 1; i >= 0; i--) {
+            sorted[i] = ordinals[0];
+            swap(0, --size);
+            siftDown(0);
+        }
+        return sorted;
+    }
+
+    private int compare(int ordinal, int matchCount, double coverage, double rating, int slot) {
+        if (matchCount != matchCounts[slot]) return Integer.compare(matchCount, matchCounts[slot]);
+        if (coverage != coverages[slot]) return Double.compare(coverage, coverages[slot]);
+        if (rating != ratings[slot]) return Double.compare(rating, ratings[slot]);
+        // Lower ordinal wins ties so paging is stable between calls
+        return Integer.compare(ordinals[slot], ordinal);
+    }
+
+    private int compare(int a, int b) {
+        return compare(ordinals[a], matchCounts[a], coverages[a], ratings[a], b);
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (compare(i, parent) >= 0) break;
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int left = 2 * i + 1;
+            if (left >= size) break;
+            int smallest = left;
+            int right = left + 1;
+            if (right < size && compare(right, left) < 0) smallest = right;
+            if (compare(smallest, i) >= 0) break;
+            swap(i, smallest);
+            i = smallest;
+        }
+    }
+
+    private void set(int slot, int ordinal, int matchCount, double coverage, double rating) {
+        ordinals[slot] = ordinal;
+        matchCounts[slot] = matchCount;
+        coverages[slot] = coverage;
+        ratings[slot] = rating;
+    }
+
+    private void swap(int a, int b) {
+        int ordinal = ordinals[a];
+        int matchCount = matchCounts[a];
+        double coverage = coverages[a];
+        double rating = ratings[a];
+        set(a, ordinals[b], matchCounts[b], coverages[b], ratings[b]);
+        set(b, ordinal, matchCount, coverage, rating);
+    }
+}
@@ -0,0 +1,155 @@
+package com.bervan.cookbook.index;
+
+import java.util.Arrays;
+
+/**
+ * BK-tree over interned tokens under Levenshtein distance. A lookup with a
+ * bounded distance {@code k} only descends into edges labelled within
+ * {@code [d - k, d + k]}, so it visits a small part of the vocabulary.
+ * <p>
+ * Nodes live in parallel arrays and children are linked first-child /
+ * next-sibling. Not thread-safe; the owning index guards it.
+ */
+public class TokenBkTree {
+    private static final int NONE = -1;
+
+    private char[][] terms = new char[16][];
+    private int[] termIds = new int[16];
+    private int[] edgeDistances = new int[16];
+    private int[] firstChild = new int[16];
+    private int[] nextSibling = new int[16];
+    private int size;
+
+    public int size() {
+        return size;
+    }
+
+    public void add(String term, int termId) {
+        char[] chars = term.toCharArray();
+        if (size == 0) {
+            append(chars, termId, 0);
+            return;
+        }
+
+        int node = 0;
+        while (true) {
+            int distance = distance(chars, terms[node]);
+            if (distance == 0) {
+                return;
+            }
+
+            int child = firstChild[node];
+            while (child != NONE && edgeDistances[child] != distance) {
+                child = nextSibling[child];
+            }
+            if (child == NONE) {
+                int added = append(chars, termId, distance);
+                nextSibling[added] = firstChild[node];
+                firstChild[node] = added;
+                return;
+            }
+            node = child;
+        }
+    }
+
+    /**
+     * @return the closest term within {@code maxDistance}, preferring the lower term id on
+     * ties, or {@code null} when there is none
+     */
+    public Match nearest(String term, int maxDistance) {
+        if (size == 0 || maxDistance < 0) {
+            return null;
+        }
+
+        char[] chars = term.toCharArray();
+        int bestId = NONE;
+        int bestDistance = maxDistance + 1;
+        int[] stack = new int[16];
+        int top = 0;
+        stack[top++] = 0;
+        while (top > 0) {
+            int node = stack[--top];
+            int distance = distance(chars, terms[node]);
+            if (distance < bestDistance || (distance == bestDistance && termIds[node] < bestId)) {
+                bestDistance = distance;
+                bestId = termIds[node];
+            }
+
+            // Triangle inequality: only edges within the search radius can hold closer terms
+            int radius = Math.min(maxDistance, bestDistance);
+            for (int child = firstChild[node]; child != NONE; child = nextSibling[child]) {
+                if (Math.abs(edgeDistances[child] - distance) <= radius) {
+                    if (top == stack.length) {
+                        stack = Arrays.copyOf(stack, top * 2);
+                    }
+                    stack[top++] = child;
+                }
+            }
+        }
+
+        return bestId == NONE ? null : new Match(bestId, bestDistance);
+    }
+
+    private int append(char[] chars, int termId, int edgeDistance) {
+        if (size == terms.length) {
+            int capacity = size * 2;
+            terms = Arrays.copyOf(terms, capacity);
+            termIds = Arrays.copyOf(termIds, capacity);
+            edgeDistances = Arrays.copyOf(edgeDistances, capacity);
+            firstChild = Arrays.copyOf(firstChild, capacity);
+            nextSibling = Arrays.copyOf(nextSibling, capacity);
+        }
+        terms[size] = chars;
+        termIds[size] = termId;
+        edgeDistances[size] = edgeDistance;
+        firstChild[size] = NONE;
+        nextSibling[size] = NONE;
+        return size++;
+    }
+
+    /**
+     * Levenshtein distance with two rolling rows.
+     */
+    static int distance(char[] a, char[] b) {
+        if (a.length > b.length) {
+            char[] swap = a;
+            a = b;
+            b = swap;
+        }
+
+        int[] previous = new int[a.length + 1];
+        int[] current = new int[a.length + 1];
+        for (int i = 0; i <= a.length; i++) {
+            previous[i] = i;
+        }
+        for (int j = 1; j <= b.length; j++) {
+            current[0] = j;
+            for (int i = 1; i <= a.length; i++) {
+                int cost = a[i - 1] == b[j - 1] ? 0 : 1;
+                current[i] = Math.min(Math.min(current[i - 1] + 1, previous[i] + 1), previous[i - 1] + cost);
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[a.length];
+    }
+
+    public static class Match {
+        private final int termId;
+        private final int distance;
+
+        private Match(int termId, int distance) {
+            this.termId = termId;
+            this.distance = distance;
+        }
+
+        public int getTermId() {
+            return termId;
+        }
+
+        public int getDistance() {
+            return distance;
+        }
+    }
+}
@@ -5,6 +5,7 @@ import com.bervan.common.model.PersistableTableOwnedData;
 import com.bervan.ieentities.ExcelIEEntity;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Size;
+import org.springframework.data.domain.Persistable;
 
 import java.time.LocalDateTime;
 import java.util.HashSet;
@@ -13,7 +14,9 @@ import java.util.UUID;
 
 @Entity
 @Inheritance(strategy = InheritanceType.TABLE_PER_CLASS)
-public class Ingredient extends BervanOwnedBaseEntity<UUID> implements PersistableTableOwnedData<UUID>, ExcelIEEntity<UUID> {
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_ingredient_normalized_name", columnNames = "normalizedName"))
+public class Ingredient extends BervanOwnedBaseEntity<UUID> implements PersistableTableOwnedData<UUID>, ExcelIEEntity<UUID>,
+        Persistable<UUID> {
     public static final String Ingredient_name_columnName = "name";
     public static final String Ingredient_category_columnName = "category";
     public static final String Ingredient_kcalPer100g_columnName = "kcalPer100g";
@@ -29,6 +32,12 @@ public class Ingredient extends BervanOwnedBaseEntity<UUID> implements Persistab
     @Size(min = 1, max = 200)
     private String name;
 
+    // Trimmed, lowercased name; unique so concurrent findOrCreateByName calls cannot both insert.
+    // Null for deleted rows, so a deleted name can be created or renamed to again.
+    // Rows from before the column existed are filled by IngredientNormalizedNameBackfill
+    @Size(max = 200)
+    private String normalizedName;
+
     @Size(max = 200)
     private String originalName;
 
@@ -48,9 +57,22 @@ public class Ingredient extends BervanOwnedBaseEntity<UUID> implements Persistab
     @Column(length = 5000)
     private String notes;
 
+    // Written only by IngredientUsageService through a bulk update; entity saves must not
+    // overwrite them with the counts the entity was loaded with
+    @Column(updatable = false)
+    private Integer recipeUsageCount;
+    @Column(updatable = false)
+    private Integer dietUsageCount;
+    @Column(updatable = false)
+    private Integer cartUsageCount;
+
     private boolean deleted;
     private LocalDateTime modificationDate;
 
+    // Ids are assigned up front; without this flag Spring Data merges new ingredients, one SELECT each
+    @Transient
+    private boolean newEntity;
+
     @OneToMany(mappedBy = "ingredient", fetch = FetchType.EAGER,
             cascade = {CascadeType.PERSIST, CascadeType.MERGE, CascadeType.REMOVE},
             orphanRemoval = true)
@@ -69,6 +91,24 @@ public class Ingredient extends BervanOwnedBaseEntity<UUID> implements Persistab
         this.id = id;
     }
 
+    @Override
+    public boolean isNew() {
+        return newEntity || id == null;
+    }
+
+    /**
+     * Makes the next save persist this ingredient instead of merging it.
+     */
+    public void markNew() {
+        this.newEntity = true;
+    }
+
+    @PostPersist
+    @PostLoad
+    private void markPersisted() {
+        this.newEntity = false;
+    }
+
     @Override
     public String getTableFilterableColumnValue() {
         return name;
@@ -90,6 +130,7 @@ public class Ingredient extends BervanOwnedBaseEntity<UUID> implements Persistab
 
     public void setDeleted(Boolean deleted) {
         this.deleted = deleted;
+        this.normalizedName = normalizedName();
     }
 
     public String getName() {
@@ -98,6 +139,25 @@ public class Ingredient extends BervanOwnedBaseEntity<UUID> implements Persistab
 
     public void setName(String name) {
         this.name = name;
+        this.normalizedName = normalizedName();
+    }
+
+    public String getNormalizedName() {
+        return normalizedName;
+    }
+
+    public static String normalizeName(String name) {
+        return name != null ? name.trim().toLowerCase() : null;
+    }
+
+    @PrePersist
+    @PreUpdate
+    private void updateNormalizedName() {
+        normalizedName = normalizedName();
+    }
+
+    private String normalizedName() {
+        return deleted ? null : normalizeName(name);
     }
 
     public String getOriginalName() {
@@ -180,6 +240,18 @@ public class Ingredient extends BervanOwnedBaseEntity<UUID> implements Persistab
         this.notes = notes;
     }
 
+    public Integer getRecipeUsageCount() {
+        return recipeUsageCount;
+    }
+
+    public Integer getDietUsageCount() {
+        return dietUsageCount;
+    }
+
+    public Integer getCartUsageCount() {
+        return cartUsageCount;
+    }
+
     public boolean hasMacros() {
         return kcalPer100g != null;
     }
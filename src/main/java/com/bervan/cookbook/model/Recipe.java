@@ -17,6 +17,10 @@ import java.util.UUID;
 
 @Entity
 @Inheritance(strategy = InheritanceType.TABLE_PER_CLASS)
+@Table(indexes = {
+        @Index(name = "idx_recipe_normalized_source_url", columnList = "normalizedSourceUrl"),
+        @Index(name = "idx_recipe_content_fingerprint", columnList = "contentFingerprint")
+})
 @HistorySupported
 public class Recipe extends BervanOwnedBaseEntity<UUID> implements PersistableTableOwnedData<UUID>, ExcelIEEntity<UUID> {
     public static final String Recipe_name_columnName = "name";
@@ -70,6 +74,13 @@ public class Recipe extends BervanOwnedBaseEntity<UUID> implements PersistableTa
     @Size(max = 300)
     private String sourceUrl;
 
+    // Import deduplication keys, see RecipeFingerprint
+    @Size(max = 300)
+    private String normalizedSourceUrl;
+
+    @Size(max = 64)
+    private String contentFingerprint;
+
     private boolean deleted;
     private LocalDateTime modificationDate;
 
@@ -238,6 +249,22 @@ public class Recipe extends BervanOwnedBaseEntity<UUID> implements PersistableTa
         this.sourceUrl = sourceUrl;
     }
 
+    public String getNormalizedSourceUrl() {
+        return normalizedSourceUrl;
+    }
+
+    public void setNormalizedSourceUrl(String normalizedSourceUrl) {
+        this.normalizedSourceUrl = normalizedSourceUrl;
+    }
+
+    public String getContentFingerprint() {
+        return contentFingerprint;
+    }
+
+    public void setContentFingerprint(String contentFingerprint) {
+        this.contentFingerprint = contentFingerprint;
+    }
+
     public Set<RecipeIngredient> getRecipeIngredients() {
         return recipeIngredients;
     }
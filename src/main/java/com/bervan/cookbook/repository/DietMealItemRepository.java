@@ -1,9 +1,24 @@
 package com.bervan.cookbook.repository;
 
 import com.bervan.cookbook.model.DietMealItem;
+import com.bervan.cookbook.model.Ingredient;
 import com.bervan.history.model.BaseRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.List;
 import java.util.UUID;
 
 public interface DietMealItemRepository extends BaseRepository<DietMealItem, UUID> {
+    /**
+     * @return [diet day id, ingredient id] per live ingredient-based diet item
+     */
+    @Query("SELECT d.meal.dietDay.id, d.ingredient.id FROM DietMealItem d WHERE d.deleted = false " +
+            "AND d.ingredient IS NOT NULL AND d.meal.deleted = false AND d.meal.dietDay.deleted = false")
+    List<Object[]> findIngredientReferences();
+
+    @Modifying
+    @Query("UPDATE DietMealItem d SET d.ingredient = :target WHERE d.ingredient = :source")
+    int reassignIngredient(@Param("source") Ingredient source, @Param("target") Ingredient target);
 }
@@ -1,14 +1,23 @@
 package com.bervan.cookbook.repository;
 
+import com.bervan.cookbook.model.Ingredient;
 import com.bervan.cookbook.model.IngredientAlias;
 import com.bervan.history.model.BaseRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 public interface IngredientAliasRepository extends BaseRepository<IngredientAlias, UUID> {
-    Optional<IngredientAlias> findByAliasNameIgnoreCase(String aliasName);
+    Optional<IngredientAlias> findFirstByAliasNameIgnoreCaseAndDeletedFalseAndIngredientDeletedFalse(String aliasName);
 
     List<IngredientAlias> findByAliasNameContainingIgnoreCase(String text);
+
+    @Modifying
+    @Query("UPDATE IngredientAlias a SET a.ingredient = :target WHERE a.id IN :ids")
+    int moveToIngredient(@Param("ids") Collection<UUID> aliasIds, @Param("target") Ingredient target);
 }
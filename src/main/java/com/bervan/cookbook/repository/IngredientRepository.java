@@ -2,13 +2,83 @@ package com.bervan.cookbook.repository;
 
 import com.bervan.cookbook.model.Ingredient;
 import com.bervan.history.model.BaseRepository;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 public interface IngredientRepository extends BaseRepository<Ingredient, UUID> {
-    Optional<Ingredient> findByNameIgnoreCase(String name);
+    Optional<Ingredient> findByNameIgnoreCaseAndDeletedFalse(String name);
+
+    Optional<Ingredient> findByNormalizedName(String normalizedName);
+
+    List<Ingredient> findByNormalizedNameIsNullAndDeletedFalse();
+
+    List<Ingredient> findByNormalizedNameIn(Collection<String> normalizedNames);
 
     List<Ingredient> findByNameContainingIgnoreCase(String name);
+
+    List<Ingredient> findByDeletedFalse();
+
+    String TEXT_MATCH = "i.deleted = false AND (lower(i.name) LIKE :pattern ESCAPE '!' " +
+            "OR EXISTS (SELECT a FROM IngredientAlias a WHERE a.ingredient = i AND a.deleted = false " +
+            "AND lower(a.aliasName) LIKE :pattern ESCAPE '!'))";
+
+    /**
+     * Name or alias contains the pattern; names starting with {@code prefixPattern} first, then shorter names.
+     */
+    @Query("SELECT i FROM Ingredient i WHERE " + TEXT_MATCH +
+            " ORDER BY CASE WHEN lower(i.name) LIKE :prefixPattern ESCAPE '!' THEN 0 ELSE 1 END, length(i.name), i.name")
+    List<Ingredient> searchByText(@Param("pattern") String pattern, @Param("prefixPattern") String prefixPattern,
+                                  Pageable pageable);
+
+    @Query("SELECT count(i) FROM Ingredient i WHERE " + TEXT_MATCH)
+    long countByText(@Param("pattern") String pattern);
+
+    /**
+     * @return [id, recipe, diet and cart usage count] per ingredient, counts null until first persisted
+     */
+    @Query("SELECT i.id, i.recipeUsageCount, i.dietUsageCount, i.cartUsageCount FROM Ingredient i")
+    List<Object[]> findUsageCounts();
+
+    @Modifying
+    @Query("UPDATE Ingredient i SET i.recipeUsageCount = :recipeCount, i.dietUsageCount = :dietCount, " +
+            "i.cartUsageCount = :cartCount WHERE i.id = :id")
+    int updateUsageCounts(@Param("id") UUID id, @Param("recipeCount") int recipeCount,
+                          @Param("dietCount") int dietCount, @Param("cartCount") int cartCount);
+
+    /**
+     * Bulk update, bypasses the entity callback that derives the column from the name.
+     */
+    @Modifying
+    @Query("UPDATE Ingredient i SET i.normalizedName = :normalizedName WHERE i.id = :id")
+    int updateNormalizedName(@Param("id") UUID id, @Param("normalizedName") String normalizedName);
+
+    /**
+     * Soft-deletes a duplicate merged into another ingredient; its normalized name stays
+     * null so it does not take the unique value of the ingredient it was merged into.
+     */
+    @Modifying
+    @Query("UPDATE Ingredient i SET i.deleted = true, i.normalizedName = null WHERE i.id = :id")
+    int markMerged(@Param("id") UUID id);
+
+    /**
+     * Frees the normalized names still held by rows soft-deleted before deletion cleared them.
+     */
+    @Modifying
+    @Query("UPDATE Ingredient i SET i.normalizedName = null WHERE i.deleted = true AND i.normalizedName IS NOT NULL")
+    int clearNormalizedNameOfDeleted();
+
+    /**
+     * Live ingredients whose name or live alias is one of the names; their alias collections
+     * still hold deleted aliases.
+     */
+    @Query("SELECT DISTINCT i FROM Ingredient i LEFT JOIN i.aliases a WHERE i.deleted = false " +
+            "AND (lower(i.name) IN :names OR (a.deleted = false AND lower(a.aliasName) IN :names))")
+    List<Ingredient> findByNameOrAliasIn(@Param("names") Collection<String> lowerCaseNames);
 }
@@ -1,11 +1,26 @@
 package com.bervan.cookbook.repository;
 
+import com.bervan.cookbook.model.Ingredient;
 import com.bervan.cookbook.model.RecipeIngredient;
 import com.bervan.history.model.BaseRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.UUID;
 
 public interface RecipeIngredientRepository extends BaseRepository<RecipeIngredient, UUID> {
     List<RecipeIngredient> findByRecipeId(UUID recipeId);
+
+    /**
+     * @return [recipe id, ingredient id] per line of a live recipe
+     */
+    @Query("SELECT ri.recipe.id, ri.ingredient.id FROM RecipeIngredient ri " +
+            "WHERE ri.deleted = false AND ri.recipe.deleted = false")
+    List<Object[]> findIngredientReferences();
+
+    @Modifying
+    @Query("UPDATE RecipeIngredient ri SET ri.ingredient = :target WHERE ri.ingredient = :source")
+    int reassignIngredient(@Param("source") Ingredient source, @Param("target") Ingredient target);
 }
@@ -10,6 +10,12 @@ import java.util.UUID;
 public interface RecipeRepository extends BaseRepository<Recipe, UUID> {
     List<Recipe> findByNameContainingIgnoreCase(String name);
 
+    List<Recipe> findByDeletedFalse();
+
+    List<Recipe> findByNormalizedSourceUrlAndDeletedFalse(String normalizedSourceUrl);
+
+    List<Recipe> findByContentFingerprintAndDeletedFalse(String contentFingerprint);
+
     @Query("SELECT DISTINCT t FROM Recipe r JOIN r.tags t ORDER BY t")
     List<String> findAllDistinctTags();
 }
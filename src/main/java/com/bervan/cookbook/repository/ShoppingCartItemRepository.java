@@ -1,11 +1,25 @@
 package com.bervan.cookbook.repository;
 
+import com.bervan.cookbook.model.Ingredient;
 import com.bervan.cookbook.model.ShoppingCartItem;
 import com.bervan.history.model.BaseRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.UUID;
 
 public interface ShoppingCartItemRepository extends BaseRepository<ShoppingCartItem, UUID> {
     List<ShoppingCartItem> findByCartId(UUID cartId);
+
+    /**
+     * @return [cart id, ingredient id] per item of a live cart
+     */
+    @Query("SELECT i.cart.id, i.ingredient.id FROM ShoppingCartItem i WHERE i.deleted = false AND i.cart.deleted = false")
+    List<Object[]> findIngredientReferences();
+
+    @Modifying
+    @Query("UPDATE ShoppingCartItem i SET i.ingredient = :target WHERE i.ingredient = :source")
+    int reassignIngredient(@Param("source") Ingredient source, @Param("target") Ingredient target);
 }
@@ -5,21 +5,22 @@ import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
 import org.jsoup.safety.Safelist;
-import org.jsoup.select.Elements;
+import org.jsoup.select.Evaluator;
+import org.jsoup.select.QueryParser;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 
-import java.util.ArrayList;
-import java.util.LinkedHashSet;
-import java.util.List;
-import java.util.Set;
+import java.util.*;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+@Order(2)
 @Component
 public class AGRecipeScraper implements RecipeScraperStrategy {
     private static final Logger log = LoggerFactory.getLogger(AGRecipeScraper.class);
+    private static final Set<String> SUPPORTED_HOSTS = Set.of("aniagotuje.pl");
 
     private static final Pattern QUANTITY_PATTERN = Pattern.compile(
             "^\\s*(\\d+[.,]?\\d*(?:\\s*[-–/]\\s*\\d+[.,]?\\d*)?)\\s*"
@@ -34,6 +35,22 @@ public class AGRecipeScraper implements RecipeScraperStrategy {
             Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE
     );
 
+    private static final Pattern ISO_DURATION_PATTERN = Pattern.compile("PT(?:(\\d+)H)?(?:(\\d+)M)?(?:(\\d+)S)?");
+    private static final Pattern NUMBER_PATTERN = Pattern.compile("(\\d+)");
+    private static final Pattern WHITESPACE_PATTERN = Pattern.compile("\\s+");
+    private static final Pattern RANGE_SEPARATOR_PATTERN = Pattern.compile("[-–]");
+
+    private static final Evaluator RECIPE_SCOPE = QueryParser.parse("[itemtype*='schema.org/Recipe']");
+    private static final Evaluator TAG_LINKS = QueryParser.parse(".post-tags .category a");
+    private static final Evaluator CATEGORY_LINKS = QueryParser.parse(".post-categories .category a");
+    private static final Evaluator INSTRUCTION_NOISE = QueryParser.parse(
+            "script, style, button, form, input, select, textarea, nav, " +
+                    "header, footer, iframe, ins, .adsbygoogle, .ads-slot-article, " +
+                    ".copy-share-lock-con, .share-ingredients, .wake-photo-con, " +
+                    ".article-intro, #recipeIngredients, .recipe-info, .nutrition-info, " +
+                    ".share-recipe, .print-it, .article-nav, .ing-header, .ing-remarks, " +
+                    "[data-nosnippet], .ad-slot, .comm-ad-slot");
+
     private static final Safelist INSTRUCTION_SAFELIST = Safelist.relaxed()
             .addTags("img")
             .addAttributes("img", "src", "srcset", "alt", "title", "width", "height", "loading", "sizes", "class")
@@ -51,73 +68,68 @@ public class AGRecipeScraper implements RecipeScraperStrategy {
         return "AG";
     }
 
+    @Override
+    public Set<String> getSupportedHosts() {
+        return SUPPORTED_HOSTS;
+    }
+
+    @Override
+    public boolean recognizes(String html) {
+        return RecipeHtmlSlicer.recipeTagStart(html) >= 0;
+    }
+
     @Override
     public ScrapedRecipeData scrape(String html) {
-        log.info("Parsing recipe HTML with AGRecipeScraper, length: {}", html.length());
-        Document doc = Jsoup.parse(html);
+        // Build the DOM only for the recipe element when it can be cut out of the page
+        String recipeHtml = RecipeHtmlSlicer.sliceRecipe(html);
+        log.debug("Parsing recipe HTML with AGRecipeScraper, length: {}, parsed: {}", html.length(),
+                recipeHtml != null ? recipeHtml.length() : html.length());
+        Document doc = Jsoup.parse(recipeHtml != null ? recipeHtml : html);
         return parseRecipe(doc);
     }
 
     private ScrapedRecipeData parseRecipe(Document doc) {
-        Element recipeElement = doc.selectFirst("[itemtype*='schema.org/Recipe']");
+        Element recipeElement = doc.selectFirst(RECIPE_SCOPE);
         if (recipeElement == null) {
             recipeElement = doc;
         }
-
-        String name = extractName(recipeElement);
-        String description = extractDescription(recipeElement);
-        String instructionHtml = extractInstructionHtml(recipeElement);
-        Integer prepTime = extractDurationMinutes(recipeElement, "prepTime");
-        Integer cookTime = extractDurationMinutes(recipeElement, "cookTime");
-        Integer servings = extractServings(recipeElement);
-        Integer totalCalories = extractCalories(recipeElement);
-        String mainImageUrl = extractMainImage(recipeElement);
-        String tags = extractTags(recipeElement);
-        Double averageRating = extractRatingValue(recipeElement);
-        Integer ratingCount = extractRatingCount(recipeElement);
-
-        List<ScrapedRecipeData.ScrapedIngredientLine> ingredientLines = extractIngredients(recipeElement);
+        ItemProps props = ItemProps.collect(recipeElement);
 
         return ScrapedRecipeData.builder()
-                .name(name)
-                .description(description)
-                .instructionHtml(instructionHtml)
-                .prepTime(prepTime)
-                .cookTime(cookTime)
-                .servings(servings)
-                .totalCalories(totalCalories)
-                .averageRating(averageRating)
-                .ratingCount(ratingCount)
-                .tags(tags)
+                .name(extractName(recipeElement, props))
+                .description(extractDescription(recipeElement, props))
+                .instructionHtml(extractInstructionHtml(recipeElement, props))
+                .prepTime(extractDurationMinutes(props, "prepTime"))
+                .cookTime(extractDurationMinutes(props, "cookTime"))
+                .servings(extractServings(props))
+                .totalCalories(extractCalories(props))
+                .averageRating(extractRatingValue(props))
+                .ratingCount(extractRatingCount(props))
+                .tags(extractTags(recipeElement, props))
                 .sourceUrl("")
-                .mainImageUrl(mainImageUrl)
-                .ingredientLines(ingredientLines)
+                .mainImageUrl(extractMainImage(recipeElement, props))
+                .ingredientLines(extractIngredients(recipeElement, props))
                 .build();
     }
 
-    private String extractName(Element root) {
-        Element el = root.selectFirst("h1[itemprop=name]");
-        if (el != null) return el.text().trim();
-
-        el = root.selectFirst("[itemprop=name]");
-        if (el != null && "h1".equalsIgnoreCase(el.tagName())) {
-            return el.text().trim();
+    private String extractName(Element root, ItemProps props) {
+        List<Element> names = props.all("name");
+        for (Element el : names) {
+            if ("h1".equalsIgnoreCase(el.tagName())) return el.text().trim();
         }
+        if (!names.isEmpty()) return names.get(0).text().trim();
 
-        el = root.selectFirst("[itemprop=name]");
-        if (el != null) return el.text().trim();
-
-        el = root.selectFirst("h1");
+        Element el = root.selectFirst("h1");
         if (el != null) return el.text().trim();
 
         return "Imported Recipe";
     }
 
-    private String extractDescription(Element root) {
-        Element el = root.selectFirst("meta[itemprop=description]");
+    private String extractDescription(Element root, ItemProps props) {
+        Element el = props.firstMeta("description");
         if (el != null) return el.attr("content").trim();
 
-        el = root.selectFirst("[itemprop=description]");
+        el = props.first("description");
         if (el != null) return el.text().trim();
 
         el = root.selectFirst(".article-intro");
@@ -126,8 +138,8 @@ public class AGRecipeScraper implements RecipeScraperStrategy {
         return null;
     }
 
-    private String extractInstructionHtml(Element root) {
-        Element instructionEl = root.selectFirst("[itemprop=recipeInstructions]");
+    private String extractInstructionHtml(Element root, ItemProps props) {
+        Element instructionEl = props.first("recipeInstructions");
         if (instructionEl == null) {
             instructionEl = root.selectFirst(".article-content-body");
         }
@@ -136,32 +148,26 @@ public class AGRecipeScraper implements RecipeScraperStrategy {
         }
 
         Element copy = instructionEl.clone();
-
-        copy.select("script, style, button, form, input, select, textarea, nav, " +
-                "header, footer, iframe, ins, .adsbygoogle, .ads-slot-article, " +
-                ".copy-share-lock-con, .share-ingredients, .wake-photo-con, " +
-                ".article-intro, #recipeIngredients, .recipe-info, .nutrition-info, " +
-                ".share-recipe, .print-it, .article-nav, .ing-header, .ing-remarks, " +
-                "[data-nosnippet], .ad-slot, .comm-ad-slot").remove();
+        copy.select(INSTRUCTION_NOISE).remove();
 
         String html = copy.html();
 
         return Jsoup.clean(html, root.baseUri(), INSTRUCTION_SAFELIST);
     }
 
-    private Integer extractDurationMinutes(Element root, String itemprop) {
-        Element meta = root.selectFirst("meta[itemprop=" + itemprop + "]");
+    private Integer extractDurationMinutes(ItemProps props, String itemprop) {
+        Element meta = props.firstMeta(itemprop);
         if (meta != null) {
             return parseIsoDuration(meta.attr("content"));
         }
 
-        Element el = root.selectFirst("[itemprop=" + itemprop + "]");
+        Element el = props.first(itemprop);
         if (el != null) {
             String content = el.attr("content");
             if (!content.isEmpty()) return parseIsoDuration(content);
             String datetime = el.attr("datetime");
             if (!datetime.isEmpty()) return parseIsoDuration(datetime);
-            return parseMinutesFromText(el.text());
+            return parseFirstNumber(el.text());
         }
 
         return null;
@@ -169,8 +175,7 @@ public class AGRecipeScraper implements RecipeScraperStrategy {
 
     private Integer parseIsoDuration(String iso) {
         if (iso == null || iso.isBlank()) return null;
-        Pattern p = Pattern.compile("PT(?:(\\d+)H)?(?:(\\d+)M)?(?:(\\d+)S)?");
-        Matcher m = p.matcher(iso.toUpperCase());
+        Matcher m = ISO_DURATION_PATTERN.matcher(iso.toUpperCase());
         if (m.find()) {
             int hours = m.group(1) != null ? Integer.parseInt(m.group(1)) : 0;
             int minutes = m.group(2) != null ? Integer.parseInt(m.group(2)) : 0;
@@ -179,42 +184,33 @@ public class AGRecipeScraper implements RecipeScraperStrategy {
         return null;
     }
 
-    private Integer parseMinutesFromText(String text) {
-        if (text == null) return null;
-        Matcher m = Pattern.compile("(\\d+)").matcher(text);
-        if (m.find()) {
-            return Integer.parseInt(m.group(1));
-        }
-        return null;
-    }
-
-    private Integer extractServings(Element root) {
-        Element meta = root.selectFirst("meta[itemprop=recipeYield]");
+    private Integer extractServings(ItemProps props) {
+        Element meta = props.firstMeta("recipeYield");
         if (meta != null) {
             return parseFirstNumber(meta.attr("content"));
         }
-        Element el = root.selectFirst("[itemprop=recipeYield]");
+        Element el = props.first("recipeYield");
         if (el != null) return parseFirstNumber(el.text());
         return null;
     }
 
-    private Integer extractCalories(Element root) {
-        Element el = root.selectFirst("[itemprop=calories]");
+    private Integer extractCalories(ItemProps props) {
+        Element el = props.first("calories");
         if (el != null) return parseFirstNumber(el.text());
         return null;
     }
 
     private Integer parseFirstNumber(String text) {
         if (text == null) return null;
-        Matcher m = Pattern.compile("(\\d+)").matcher(text);
+        Matcher m = NUMBER_PATTERN.matcher(text);
         if (m.find()) {
             return Integer.parseInt(m.group(1));
         }
         return null;
     }
 
-    private Double extractRatingValue(Element root) {
-        Element el = root.selectFirst("[itemprop=ratingValue]");
+    private Double extractRatingValue(ItemProps props) {
+        Element el = props.first("ratingValue");
         if (el != null) {
             try {
                 return Double.parseDouble(el.text().trim().replace(",", "."));
@@ -224,20 +220,20 @@ public class AGRecipeScraper implements RecipeScraperStrategy {
         return null;
     }
 
-    private Integer extractRatingCount(Element root) {
-        Element el = root.selectFirst("[itemprop=ratingCount]");
+    private Integer extractRatingCount(ItemProps props) {
+        Element el = props.first("ratingCount");
         if (el != null) return parseFirstNumber(el.text());
         return null;
     }
 
-    private String extractMainImage(Element root) {
-        Element meta = root.selectFirst("meta[itemprop=image]");
+    private String extractMainImage(Element root, ItemProps props) {
+        Element meta = props.firstMeta("image");
         if (meta != null) {
             String url = meta.attr("content");
             if (!url.isEmpty()) return url;
         }
 
-        Element img = root.selectFirst("[itemprop=image]");
+        Element img = props.first("image");
         if (img != null) {
             if ("img".equalsIgnoreCase(img.tagName())) return img.attr("abs:src");
             return img.attr("content");
@@ -249,10 +245,10 @@ public class AGRecipeScraper implements RecipeScraperStrategy {
         return null;
     }
 
-    private String extractTags(Element root) {
+    private String extractTags(Element root, ItemProps props) {
         Set<String> tags = new LinkedHashSet<>();
 
-        Element keywords = root.selectFirst("meta[itemprop=keywords]");
+        Element keywords = props.firstMeta("keywords");
         if (keywords != null) {
             String content = keywords.attr("content");
             if (!content.isEmpty()) {
@@ -263,14 +259,13 @@ public class AGRecipeScraper implements RecipeScraperStrategy {
             }
         }
 
-        Element category = root.selectFirst("meta[itemprop=recipeCategory]");
+        Element category = props.firstMeta("recipeCategory");
         if (category != null) {
             String cat = category.attr("content").trim();
             if (!cat.isEmpty()) tags.add(cat);
         }
 
-        Elements diets = root.select("[itemprop=suitableForDiet]");
-        for (Element diet : diets) {
+        for (Element diet : props.all("suitableForDiet")) {
             String href = diet.attr("href");
             if (href.contains("Vegetarian")) tags.add("wegetariańska");
             else if (href.contains("Vegan")) tags.add("wegańska");
@@ -279,14 +274,12 @@ public class AGRecipeScraper implements RecipeScraperStrategy {
             else if (href.contains("LowCalorie")) tags.add("niskokaloryczna");
         }
 
-        Elements tagLinks = root.select(".post-tags .category a");
-        for (Element tagLink : tagLinks) {
+        for (Element tagLink : root.select(TAG_LINKS)) {
             String text = tagLink.text().trim();
             if (!text.isEmpty()) tags.add(text);
         }
 
-        Elements catLinks = root.select(".post-categories .category a");
-        for (Element catLink : catLinks) {
+        for (Element catLink : root.select(CATEGORY_LINKS)) {
             String text = catLink.text().trim();
             if (!text.isEmpty()) tags.add(text);
         }
@@ -294,10 +287,10 @@ public class AGRecipeScraper implements RecipeScraperStrategy {
         return tags.isEmpty() ? null : String.join(", ", tags);
     }
 
-    private List<ScrapedRecipeData.ScrapedIngredientLine> extractIngredients(Element root) {
+    private List<ScrapedRecipeData.ScrapedIngredientLine> extractIngredients(Element root, ItemProps props) {
         List<ScrapedRecipeData.ScrapedIngredientLine> lines = new ArrayList<>();
 
-        Elements ingredients = root.select("[itemprop=recipeIngredient]");
+        List<Element> ingredients = props.all("recipeIngredient");
         if (ingredients.isEmpty()) {
             ingredients = root.select(".recipe-ing-list li");
         }
@@ -321,9 +314,9 @@ public class AGRecipeScraper implements RecipeScraperStrategy {
 
         Matcher qm = QUANTITY_PATTERN.matcher(remaining);
         if (qm.find()) {
-            String qStr = qm.group(1).replace(",", ".").replaceAll("\\s+", "");
+            String qStr = WHITESPACE_PATTERN.matcher(qm.group(1).replace(",", ".")).replaceAll("");
             if (qStr.contains("-") || qStr.contains("–")) {
-                qStr = qStr.split("[-–]")[0].trim();
+                qStr = RANGE_SEPARATOR_PATTERN.split(qStr)[0].trim();
             }
             if (qStr.contains("/")) {
                 String[] parts = qStr.split("/");
@@ -362,4 +355,41 @@ public class AGRecipeScraper implements RecipeScraperStrategy {
                 null
         );
     }
+
+    /**
+     * Elements carrying an {@code itemprop}, grouped by its value in document order.
+     * Collected in one traversal so each field lookup is a map access instead of a
+     * selector run over the whole recipe subtree.
+     */
+    private static final class ItemProps {
+        private final Map<String, List<Element>> byName = new HashMap<>();
+
+        static ItemProps collect(Element root) {
+            ItemProps props = new ItemProps();
+            root.traverse((node, depth) -> {
+                if (node instanceof Element element && element.hasAttr("itemprop")) {
+                    // Same matching as [itemprop=value]: case-insensitive and trimmed
+                    String name = element.attr("itemprop").trim().toLowerCase(Locale.ROOT);
+                    props.byName.computeIfAbsent(name, k -> new ArrayList<>(1)).add(element);
+                }
+            });
+            return props;
+        }
+
+        List<Element> all(String itemprop) {
+            return byName.getOrDefault(itemprop.toLowerCase(Locale.ROOT), Collections.emptyList());
+        }
+
+        Element first(String itemprop) {
+            List<Element> elements = all(itemprop);
+            return elements.isEmpty() ? null : elements.get(0);
+        }
+
+        Element firstMeta(String itemprop) {
+            for (Element element : all(itemprop)) {
+                if ("meta".equals(element.normalName())) return element;
+            }
+            return null;
+        }
+    }
 }
@@ -0,0 +1,83 @@
+package com.bervan.cookbook.scraper;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Decodes saved HTML pages in the order jsoup's {@code Jsoup.parse(InputStream, null, baseUri)}
+ * uses: byte order mark, then a charset declared in a {@code <meta>} tag or XML declaration
+ * near the top of the page, then UTF-8. Undeclared pages that are not valid UTF-8 are read
+ * as windows-1250, the usual legacy encoding of Polish recipe sites. Decoding to a string
+ * (rather than a parsed document) keeps {@link RecipeHtmlSlicer} working on raw markup.
+ */
+public final class HtmlPageDecoder {
+    // jsoup looks for the declaration in the first 5 KB as well
+    private static final int DECLARATION_SCAN_BYTES = 5 * 1024;
+    private static final Charset LEGACY_FALLBACK = Charset.forName("windows-1250");
+    private static final Pattern DECLARED_CHARSET = Pattern.compile(
+            "<meta[^>]*?charset\\s*=\\s*[\"']?\\s*([\\w.:-]+)|<\\?xml[^>]*?encoding\\s*=\\s*[\"']([\\w.:-]+)",
+            Pattern.CASE_INSENSITIVE);
+
+    private HtmlPageDecoder() {
+    }
+
+    public static String decode(byte[] bytes) {
+        if (startsWith(bytes, 0xEF, 0xBB, 0xBF)) {
+            return new String(bytes, 3, bytes.length - 3, StandardCharsets.UTF_8);
+        }
+        if (startsWith(bytes, 0xFE, 0xFF)) {
+            return new String(bytes, 2, bytes.length - 2, StandardCharsets.UTF_16BE);
+        }
+        if (startsWith(bytes, 0xFF, 0xFE)) {
+            return new String(bytes, 2, bytes.length - 2, StandardCharsets.UTF_16LE);
+        }
+
+        Charset declared = declaredCharset(bytes);
+        if (declared != null) {
+            return new String(bytes, declared);
+        }
+        String utf8 = decodeStrictUtf8(bytes);
+        return utf8 != null ? utf8 : new String(bytes, LEGACY_FALLBACK);
+    }
+
+    /**
+     * @return charset named in the head of the page, or null when none is declared or it is unknown
+     */
+    private static Charset declaredCharset(byte[] bytes) {
+        // ISO-8859-1 maps bytes 1:1, so the ASCII declaration survives whatever the real encoding is
+        String head = new String(bytes, 0, Math.min(bytes.length, DECLARATION_SCAN_BYTES), StandardCharsets.ISO_8859_1);
+        Matcher matcher = DECLARED_CHARSET.matcher(head);
+        if (!matcher.find()) {
+            return null;
+        }
+        String name = matcher.group(1) != null ? matcher.group(1) : matcher.group(2);
+        try {
+            return Charset.isSupported(name) ? Charset.forName(name) : null;
+        } catch (IllegalCharsetNameException e) {
+            return null;
+        }
+    }
+
+    private static String decodeStrictUtf8(byte[] bytes) {
+        CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT);
+        try {
+            CharBuffer chars = decoder.decode(ByteBuffer.wrap(bytes));
+            return chars.toString();
+        } catch (CharacterCodingException e) {
+            return null;
+        }
+    }
+
+    private static boolean startsWith(byte[] bytes, int... prefix) {
+        if (bytes.length < prefix.length) return false;
+        for (int i = 0; i < prefix.length; i++) {
+            if ((bytes[i] & 0xFF) != prefix[i]) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,89 @@
+package com.bervan.cookbook.scraper;
+
+import com.bervan.cookbook.model.ScrapedRecipeData;
+
+import java.util.Set;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Decorator recording call count, failures, scrape time and input size of a strategy.
+ * Counters are lock-free so scraper threads of a bulk import do not contend on them.
+ * When a fallback is set, pages the strategy declines are scraped by that (instrumented)
+ * strategy, so their time and errors are booked to the fallback rather than to this one.
+ */
+final class InstrumentedScraper implements RecipeScraperStrategy {
+    private final RecipeScraperStrategy delegate;
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAdder totalChars = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+    private InstrumentedScraper fallback;
+
+    InstrumentedScraper(RecipeScraperStrategy delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public ScrapedRecipeData scrape(String html) {
+        if (fallback == null) {
+            return timed(html, false);
+        }
+        ScrapedRecipeData data = timed(html, true);
+        return data != null ? data : fallback.scrape(html);
+    }
+
+    @Override
+    public String getFallbackName() {
+        return delegate.getFallbackName();
+    }
+
+    private ScrapedRecipeData timed(String html, boolean withoutFallback) {
+        long start = System.nanoTime();
+        try {
+            return withoutFallback ? delegate.scrapeWithoutFallback(html) : delegate.scrape(html);
+        } catch (RuntimeException e) {
+            errors.increment();
+            throw e;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            calls.increment();
+            totalNanos.add(elapsed);
+            maxNanos.accumulate(elapsed);
+            totalChars.add(html != null ? html.length() : 0);
+        }
+    }
+
+    @Override
+    public Set<String> getSupportedHosts() {
+        return delegate.getSupportedHosts();
+    }
+
+    @Override
+    public boolean recognizes(String html) {
+        return delegate.recognizes(html);
+    }
+
+    void setFallback(InstrumentedScraper fallback) {
+        this.fallback = fallback;
+    }
+
+    ScraperRegistry.ScraperStats stats() {
+        return new ScraperRegistry.ScraperStats(getName(), calls.sum(), errors.sum(),
+                totalNanos.sum(), maxNanos.get(), totalChars.sum());
+    }
+
+    void reset() {
+        calls.reset();
+        errors.reset();
+        totalNanos.reset();
+        totalChars.reset();
+        maxNanos.reset();
+    }
+}
@@ -0,0 +1,391 @@
+package com.bervan.cookbook.scraper;
+
+import com.bervan.cookbook.model.ScrapedRecipeData;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.jsoup.nodes.Entities;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Reads the schema.org Recipe embedded as {@code <script type="application/ld+json">}.
+ * Script blocks are located with a plain string scan and parsed with Jackson's
+ * streaming parser, so no DOM is built; only the fields mapped to
+ * {@link ScrapedRecipeData} are kept and everything else is skipped.
+ * Pages without a JSON-LD Recipe (or without its ingredients) go to {@link AGRecipeScraper}.
+ */
+// Tried before AG by auto-detection: JSON-LD pages are read without building a DOM
+@Order(1)
+@Component
+public class JsonLdRecipeScraper implements RecipeScraperStrategy {
+    private static final Logger log = LoggerFactory.getLogger(JsonLdRecipeScraper.class);
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final Pattern NUMBER_PATTERN = Pattern.compile("(\\d+)");
+    private static final String SCRIPT_OPEN = "<script";
+    private static final String SCRIPT_CLOSE = "</script";
+    private static final String JSON_LD_TYPE = "application/ld+json";
+    private static final String RECIPE_TYPE = "\"Recipe\"";
+
+    private final AGRecipeScraper fallback;
+
+    public JsonLdRecipeScraper(AGRecipeScraper fallback) {
+        this.fallback = fallback;
+    }
+
+    @Override
+    public String getName() {
+        return "JSON-LD";
+    }
+
+    @Override
+    public ScrapedRecipeData scrape(String html) {
+        ScrapedRecipeData data = scrapeWithoutFallback(html);
+        if (data == null) {
+            log.debug("No JSON-LD recipe found, falling back to {}", fallback.getName());
+            return fallback.scrape(html);
+        }
+        return data;
+    }
+
+    @Override
+    public ScrapedRecipeData scrapeWithoutFallback(String html) {
+        RecipeJson recipe = findRecipe(html);
+        return recipe == null || recipe.ingredients.isEmpty() ? null : toScrapedData(recipe);
+    }
+
+    @Override
+    public String getFallbackName() {
+        return fallback.getName();
+    }
+
+    @Override
+    public boolean recognizes(String html) {
+        int from = 0;
+        while (true) {
+            int open = indexOfTag(html, SCRIPT_OPEN, from);
+            if (open < 0) return false;
+            int tagEnd = html.indexOf('>', open);
+            if (tagEnd < 0) return false;
+            int close = indexOfTag(html, SCRIPT_CLOSE, tagEnd);
+            if (close < 0) return false;
+
+            if (containsIgnoreCase(html, JSON_LD_TYPE, open, tagEnd)) {
+                int type = html.indexOf(RECIPE_TYPE, tagEnd);
+                if (type >= 0 && type < close) return true;
+            }
+            from = close + SCRIPT_CLOSE.length();
+        }
+    }
+
+    private RecipeJson findRecipe(String html) {
+        int from = 0;
+        while (true) {
+            int open = indexOfTag(html, SCRIPT_OPEN, from);
+            if (open < 0) return null;
+            int tagEnd = html.indexOf('>', open);
+            if (tagEnd < 0) return null;
+            int close = indexOfTag(html, SCRIPT_CLOSE, tagEnd);
+            if (close < 0) return null;
+
+            if (containsIgnoreCase(html, JSON_LD_TYPE, open, tagEnd)) {
+                try (JsonParser parser = JSON_FACTORY.createParser(html.substring(tagEnd + 1, close))) {
+                    RecipeJson recipe = readValue(parser, parser.nextToken());
+                    if (recipe != null) return recipe;
+                } catch (IOException e) {
+                    log.debug("Skipping malformed JSON-LD block: {}", e.getMessage());
+                }
+            }
+            from = close + SCRIPT_CLOSE.length();
+        }
+    }
+
+    /**
+     * @return the first Recipe object found in the value the parser is positioned on
+     */
+    private RecipeJson readValue(JsonParser parser, JsonToken token) throws IOException {
+        if (token == JsonToken.START_OBJECT) {
+            return readObject(parser);
+        }
+        if (token == JsonToken.START_ARRAY) {
+            RecipeJson found = null;
+            JsonToken element;
+            while ((element = parser.nextToken()) != JsonToken.END_ARRAY && element != null) {
+                RecipeJson recipe = readValue(parser, element);
+                if (found == null) found = recipe;
+            }
+            return found;
+        }
+        return null;
+    }
+
+    private RecipeJson readObject(JsonParser parser) throws IOException {
+        RecipeJson fields = new RecipeJson();
+        RecipeJson nested = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken token = parser.nextToken();
+            switch (field) {
+                case "@type" -> fields.recipe = readStrings(parser, token).stream().anyMatch("Recipe"::equals);
+                case "name" -> fields.name = readText(parser, token);
+                case "description" -> fields.description = readText(parser, token);
+                case "url" -> fields.url = readText(parser, token);
+                case "prepTime" -> fields.prepTime = readText(parser, token);
+                case "cookTime" -> fields.cookTime = readText(parser, token);
+                case "recipeYield" -> fields.recipeYield = first(readStrings(parser, token));
+                case "image" -> fields.image = readImage(parser, token);
+                case "keywords" -> fields.tags.addAll(splitTags(readStrings(parser, token)));
+                case "recipeCategory" -> fields.tags.addAll(splitTags(readStrings(parser, token)));
+                case "recipeIngredient" -> fields.ingredients.addAll(readStrings(parser, token));
+                case "recipeInstructions" -> readInstructions(parser, token, fields.instructions);
+                case "nutrition" -> readNutrition(parser, token, fields);
+                case "aggregateRating" -> readRating(parser, token, fields);
+                default -> {
+                    RecipeJson recipe = readValue(parser, token);
+                    if (nested == null) nested = recipe;
+                }
+            }
+        }
+        return fields.recipe ? fields : nested;
+    }
+
+    private void readInstructions(JsonParser parser, JsonToken token, List<String> steps) throws IOException {
+        if (token == JsonToken.VALUE_STRING) {
+            steps.add(parser.getText());
+        } else if (token == JsonToken.START_ARRAY) {
+            JsonToken element;
+            while ((element = parser.nextToken()) != JsonToken.END_ARRAY && element != null) {
+                readInstructions(parser, element, steps);
+            }
+        } else if (token == JsonToken.START_OBJECT) {
+            // HowToStep {text} or HowToSection {itemListElement: [...]}
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if ("text".equals(field) && value == JsonToken.VALUE_STRING) {
+                    steps.add(parser.getText());
+                } else if ("itemListElement".equals(field)) {
+                    readInstructions(parser, value, steps);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        } else {
+            parser.skipChildren();
+        }
+    }
+
+    private void readNutrition(JsonParser parser, JsonToken token, RecipeJson fields) throws IOException {
+        if (token != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if ("calories".equals(field)) {
+                fields.calories = readText(parser, value);
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private void readRating(JsonParser parser, JsonToken token, RecipeJson fields) throws IOException {
+        if (token != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if ("ratingValue".equals(field)) {
+                fields.ratingValue = readText(parser, value);
+            } else if ("ratingCount".equals(field) || ("reviewCount".equals(field) && fields.ratingCount == null)) {
+                fields.ratingCount = readText(parser, value);
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private String readImage(JsonParser parser, JsonToken token) throws IOException {
+        if (token == JsonToken.VALUE_STRING) {
+            return parser.getText();
+        }
+        if (token == JsonToken.START_ARRAY) {
+            String url = null;
+            JsonToken element;
+            while ((element = parser.nextToken()) != JsonToken.END_ARRAY && element != null) {
+                String candidate = readImage(parser, element);
+                if (url == null) url = candidate;
+            }
+            return url;
+        }
+        if (token == JsonToken.START_OBJECT) {
+            String url = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if ("url".equals(field)) {
+                    url = readText(parser, value);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            return url;
+        }
+        return null;
+    }
+
+    /**
+     * @return scalar value as text; objects and arrays are skipped
+     */
+    private String readText(JsonParser parser, JsonToken token) throws IOException {
+        if (token != null && token.isScalarValue() && token != JsonToken.VALUE_NULL) {
+            return parser.getText();
+        }
+        parser.skipChildren();
+        return null;
+    }
+
+    /**
+     * @return a scalar or an array of scalars as strings
+     */
+    private List<String> readStrings(JsonParser parser, JsonToken token) throws IOException {
+        if (token == JsonToken.START_ARRAY) {
+            List<String> values = new ArrayList<>();
+            JsonToken element;
+            while ((element = parser.nextToken()) != JsonToken.END_ARRAY && element != null) {
+                String value = readText(parser, element);
+                if (value != null) values.add(value);
+            }
+            return values;
+        }
+        String value = readText(parser, token);
+        return value != null ? List.of(value) : Collections.emptyList();
+    }
+
+    private ScrapedRecipeData toScrapedData(RecipeJson recipe) {
+        List<ScrapedRecipeData.ScrapedIngredientLine> lines = new ArrayList<>(recipe.ingredients.size());
+        for (String ingredient : recipe.ingredients) {
+            String text = Entities.unescape(ingredient).trim();
+            if (!text.isEmpty()) {
+                lines.add(fallback.parseIngredientLine(text));
+            }
+        }
+
+        return ScrapedRecipeData.builder()
+                .name(recipe.name != null ? Entities.unescape(recipe.name).trim() : "Imported Recipe")
+                .description(recipe.description != null ? Entities.unescape(recipe.description).trim() : null)
+                .instructionHtml(toInstructionHtml(recipe.instructions))
+                .prepTime(parseIsoDuration(recipe.prepTime))
+                .cookTime(parseIsoDuration(recipe.cookTime))
+                .servings(parseFirstNumber(recipe.recipeYield))
+                .totalCalories(parseFirstNumber(recipe.calories))
+                .averageRating(parseRating(recipe.ratingValue))
+                .ratingCount(parseFirstNumber(recipe.ratingCount))
+                .tags(recipe.tags.isEmpty() ? null : String.join(", ", recipe.tags))
+                .sourceUrl(recipe.url != null ? recipe.url : "")
+                .mainImageUrl(recipe.image)
+                .ingredientLines(lines)
+                .build();
+    }
+
+    private static String toInstructionHtml(List<String> steps) {
+        if (steps.isEmpty()) return null;
+        StringBuilder html = new StringBuilder("<ol>");
+        for (String step : steps) {
+            String text = Entities.unescape(step).trim();
+            if (!text.isEmpty()) {
+                html.append("<li>").append(Entities.escape(text)).append("</li>");
+            }
+        }
+        return html.append("</ol>").toString();
+    }
+
+    private static List<String> splitTags(List<String> values) {
+        List<String> tags = new ArrayList<>();
+        for (String value : values) {
+            for (String tag : value.split(",")) {
+                String trimmed = tag.trim();
+                if (!trimmed.isEmpty()) tags.add(trimmed);
+            }
+        }
+        return tags;
+    }
+
+    private static Integer parseIsoDuration(String iso) {
+        if (iso == null || iso.isBlank()) return null;
+        try {
+            return (int) Duration.parse(iso.trim()).toMinutes();
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static Integer parseFirstNumber(String text) {
+        if (text == null) return null;
+        Matcher m = NUMBER_PATTERN.matcher(text);
+        if (m.find()) {
+            return Integer.parseInt(m.group(1));
+        }
+        return null;
+    }
+
+    private static Double parseRating(String text) {
+        if (text == null) return null;
+        try {
+            return Double.parseDouble(text.trim().replace(",", "."));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static String first(List<String> values) {
+        return values.isEmpty() ? null : values.get(0);
+    }
+
+    /**
+     * @param tag tag start such as {@code <script}, matched case-insensitively
+     */
+    private static int indexOfTag(String text, String tag, int from) {
+        for (int i = text.indexOf('<', from); i >= 0; i = text.indexOf('<', i + 1)) {
+            if (text.regionMatches(true, i, tag, 0, tag.length())) return i;
+        }
+        return -1;
+    }
+
+    private static boolean containsIgnoreCase(String text, String needle, int from, int to) {
+        for (int i = from; i <= to - needle.length(); i++) {
+            if (text.regionMatches(true, i, needle, 0, needle.length())) return true;
+        }
+        return false;
+    }
+
+    private static final class RecipeJson {
+        private boolean recipe;
+        private String name;
+        private String description;
+        private String url;
+        private String prepTime;
+        private String cookTime;
+        private String recipeYield;
+        private String image;
+        private String calories;
+        private String ratingValue;
+        private String ratingCount;
+        private final Set<String> tags = new LinkedHashSet<>();
+        private final List<String> ingredients = new ArrayList<>();
+        private final List<String> instructions = new ArrayList<>();
+    }
+}
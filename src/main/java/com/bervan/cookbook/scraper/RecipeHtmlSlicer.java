@@ -0,0 +1,288 @@
+package com.bervan.cookbook.scraper;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Set;
+
+/**
+ * Cuts the {@code [itemtype*='schema.org/Recipe']} element out of raw page HTML
+ * with a string scan, so only the recipe subtree has to be parsed into a DOM.
+ * Comment sections, ads and scripts around the recipe are never tokenized.
+ * <p>
+ * The scan walks tags in document order, skipping comments and the contents of
+ * scripts, styles and templates, and reads attribute values with their quotes, so
+ * markup inside those or a {@code >} in a quoted value is never taken for a tag.
+ * The end of the element is found by matching every nested start tag with its end
+ * tag. Whenever the markup does not allow a clean cut (unclosed or stray tags,
+ * an element whose end tag may be omitted, table-context tags) {@code null} is
+ * returned and the caller parses the whole page.
+ */
+final class RecipeHtmlSlicer {
+    private static final String RECIPE_TYPE = "schema.org/recipe";
+    private static final String ITEMTYPE = "itemtype";
+    // Elements that the HTML tree builder re-parents when parsed outside of their table context
+    private static final Set<String> CONTEXT_DEPENDENT_TAGS = Set.of(
+            "tr", "td", "th", "tbody", "thead", "tfoot", "caption", "col", "colgroup", "option", "optgroup");
+    // Elements whose end tag may be left out; they are closed implicitly by a parent's end tag
+    private static final Set<String> OPTIONAL_END_TAGS = Set.of(
+            "p", "li", "dt", "dd", "rb", "rt", "rtc", "rp", "option", "optgroup",
+            "tr", "td", "th", "thead", "tbody", "tfoot", "colgroup", "caption");
+    private static final Set<String> VOID_TAGS = Set.of(
+            "area", "base", "br", "col", "embed", "hr", "img", "input", "link", "meta", "param",
+            "source", "track", "wbr");
+    // Elements whose content is not markup (or is inert, for template) up to their own end tag
+    private static final Set<String> RAW_TEXT_TAGS = Set.of(
+            "script", "style", "template", "textarea", "title", "xmp", "noembed", "noframes");
+
+    private RecipeHtmlSlicer() {
+    }
+
+    /**
+     * @return HTML of the first recipe element, or null when it cannot be cut out cleanly
+     */
+    static String sliceRecipe(String html) {
+        int tagStart = recipeTagStart(html);
+        if (tagStart < 0) return null;
+
+        String tagName = html.substring(tagStart + 1, tagNameEnd(html, tagStart + 1)).toLowerCase();
+        if (CONTEXT_DEPENDENT_TAGS.contains(tagName) || OPTIONAL_END_TAGS.contains(tagName)
+                || VOID_TAGS.contains(tagName) || RAW_TEXT_TAGS.contains(tagName)) {
+            return null;
+        }
+
+        int end = elementEnd(html, tagStart, tagName);
+        return end < 0 ? null : html.substring(tagStart, end);
+    }
+
+    /**
+     * @return index of the '<' opening the first tag with a schema.org/Recipe itemtype, or -1
+     */
+    static int recipeTagStart(String html) {
+        int match = indexOfIgnoreCase(html, RECIPE_TYPE, 0);
+        int i = 0;
+        while (match >= 0) {
+            int lt = html.indexOf('<', i);
+            if (lt < 0 || lt > match) {
+                // The match is in text content
+                match = indexOfIgnoreCase(html, RECIPE_TYPE, match + RECIPE_TYPE.length());
+                continue;
+            }
+
+            int next = skipNonElement(html, lt);
+            if (next != lt) {
+                if (next < 0) return -1;
+                i = next;
+            } else if (isStartTag(html, lt)) {
+                int nameEnd = tagNameEnd(html, lt + 1);
+                int tagEnd = tagEnd(html, nameEnd);
+                if (tagEnd < 0) return -1;
+                if (match < tagEnd && hasRecipeItemtype(html, nameEnd, tagEnd)) {
+                    return lt;
+                }
+                i = afterStartTag(html, lt, nameEnd, tagEnd);
+                if (i < 0) return -1;
+            } else {
+                i = lt + 1;
+            }
+            if (match < i) {
+                match = indexOfIgnoreCase(html, RECIPE_TYPE, i);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return index just past the closing tag of the element opened at {@code tagStart}, or -1
+     * when the subtree is not closed or its tags do not nest
+     */
+    private static int elementEnd(String html, int tagStart, String tagName) {
+        int nameEnd = tagNameEnd(html, tagStart + 1);
+        int openEnd = tagEnd(html, nameEnd);
+        if (openEnd < 0 || html.charAt(openEnd - 1) == '/') return -1;
+
+        Deque<String> open = new ArrayDeque<>();
+        open.push(tagName);
+        int i = openEnd + 1;
+        while (true) {
+            int lt = html.indexOf('<', i);
+            if (lt < 0) return -1;
+
+            if (html.startsWith("</", lt) && isNameStart(html, lt + 2)) {
+                int closeNameEnd = tagNameEnd(html, lt + 2);
+                String name = html.substring(lt + 2, closeNameEnd).toLowerCase();
+                int closeEnd = tagEnd(html, closeNameEnd);
+                if (closeEnd < 0) return -1;
+                while (!open.isEmpty() && !open.peek().equals(name) && OPTIONAL_END_TAGS.contains(open.peek())) {
+                    open.pop();
+                }
+                if (open.isEmpty() || !open.peek().equals(name)) return -1;
+                open.pop();
+                if (open.isEmpty()) return closeEnd + 1;
+                i = closeEnd + 1;
+                continue;
+            }
+
+            int next = skipNonElement(html, lt);
+            if (next != lt) {
+                if (next < 0) return -1;
+                i = next;
+            } else if (isStartTag(html, lt)) {
+                int startNameEnd = tagNameEnd(html, lt + 1);
+                int startEnd = tagEnd(html, startNameEnd);
+                if (startEnd < 0) return -1;
+                String name = html.substring(lt + 1, startNameEnd).toLowerCase();
+                if (RAW_TEXT_TAGS.contains(name)) {
+                    i = afterStartTag(html, lt, startNameEnd, startEnd);
+                    if (i < 0) return -1;
+                    continue;
+                }
+                if (!VOID_TAGS.contains(name) && html.charAt(startEnd - 1) != '/') {
+                    open.push(name);
+                }
+                i = startEnd + 1;
+            } else {
+                i = lt + 1;
+            }
+        }
+    }
+
+    /**
+     * Skips a comment, doctype, processing instruction or end tag starting at {@code lt}.
+     *
+     * @return index past it, {@code lt} itself when a start tag or text starts there, or -1 when unterminated
+     */
+    private static int skipNonElement(String html, int lt) {
+        if (html.startsWith("<!--", lt)) {
+            int commentEnd = html.indexOf("-->", lt + 4);
+            return commentEnd < 0 ? -1 : commentEnd + 3;
+        }
+        if (html.startsWith("<!", lt) || html.startsWith("<?", lt)) {
+            int end = html.indexOf('>', lt);
+            return end < 0 ? -1 : end + 1;
+        }
+        if (html.startsWith("</", lt)) {
+            int end = isNameStart(html, lt + 2) ? tagEnd(html, tagNameEnd(html, lt + 2)) : html.indexOf('>', lt);
+            return end < 0 ? -1 : end + 1;
+        }
+        return lt;
+    }
+
+    /**
+     * @return index past the start tag, and past the element's content for raw text elements, or -1
+     */
+    private static int afterStartTag(String html, int lt, int nameEnd, int tagEnd) {
+        String name = html.substring(lt + 1, nameEnd).toLowerCase();
+        if (!RAW_TEXT_TAGS.contains(name)) {
+            return tagEnd + 1;
+        }
+        int rawEnd = tagEnd + 1;
+        while (true) {
+            rawEnd = indexOfIgnoreCase(html, "</" + name, rawEnd);
+            if (rawEnd < 0) return -1;
+            int closeNameEnd = rawEnd + 2 + name.length();
+            if (tagNameEnd(html, rawEnd + 2) == closeNameEnd) {
+                int closeEnd = html.indexOf('>', closeNameEnd);
+                return closeEnd < 0 ? -1 : closeEnd + 1;
+            }
+            rawEnd = closeNameEnd;
+        }
+    }
+
+    /**
+     * @return index of the '>' closing the tag whose name ends at {@code nameEnd}, ignoring
+     * any '>' inside quoted attribute values, or -1
+     */
+    private static int tagEnd(String html, int nameEnd) {
+        int i = nameEnd;
+        while (i < html.length()) {
+            char c = html.charAt(i);
+            if (c == '>') return i;
+            if (c == '=') {
+                i = skipWhitespace(html, i + 1);
+                if (i < html.length() && (html.charAt(i) == '"' || html.charAt(i) == '\'')) {
+                    int close = html.indexOf(html.charAt(i), i + 1);
+                    if (close < 0) return -1;
+                    i = close + 1;
+                }
+                continue;
+            }
+            i++;
+        }
+        return -1;
+    }
+
+    /**
+     * Checks whether the tag's itemtype attribute value names a schema.org Recipe.
+     */
+    private static boolean hasRecipeItemtype(String html, int nameEnd, int tagEnd) {
+        int i = nameEnd;
+        while (i < tagEnd) {
+            i = skipWhitespace(html, i);
+            if (i >= tagEnd) break;
+            if (html.charAt(i) == '/' || html.charAt(i) == '=') {
+                i++;
+                continue;
+            }
+            int attrStart = i;
+            while (i < tagEnd && !Character.isWhitespace(html.charAt(i)) && html.charAt(i) != '='
+                    && html.charAt(i) != '/') {
+                i++;
+            }
+            boolean itemtype = i - attrStart == ITEMTYPE.length()
+                    && html.regionMatches(true, attrStart, ITEMTYPE, 0, ITEMTYPE.length());
+
+            i = skipWhitespace(html, i);
+            if (i >= tagEnd || html.charAt(i) != '=') continue;
+            i = skipWhitespace(html, i + 1);
+            int valueStart;
+            int valueEnd;
+            if (i < tagEnd && (html.charAt(i) == '"' || html.charAt(i) == '\'')) {
+                valueStart = i + 1;
+                valueEnd = html.indexOf(html.charAt(i), valueStart);
+                i = valueEnd + 1;
+            } else {
+                valueStart = i;
+                while (i < tagEnd && !Character.isWhitespace(html.charAt(i))) i++;
+                valueEnd = i;
+            }
+            if (itemtype) {
+                int match = indexOfIgnoreCase(html, RECIPE_TYPE, valueStart);
+                return match >= 0 && match + RECIPE_TYPE.length() <= valueEnd;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isStartTag(String html, int lt) {
+        return isNameStart(html, lt + 1);
+    }
+
+    private static boolean isNameStart(String html, int i) {
+        if (i >= html.length()) return false;
+        char c = html.charAt(i);
+        return c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z';
+    }
+
+    private static int tagNameEnd(String html, int nameStart) {
+        int i = nameStart;
+        while (i < html.length() && (Character.isLetterOrDigit(html.charAt(i)) || html.charAt(i) == '-')) i++;
+        return i;
+    }
+
+    private static int skipWhitespace(String html, int i) {
+        while (i < html.length() && Character.isWhitespace(html.charAt(i))) i++;
+        return i;
+    }
+
+    private static int indexOfIgnoreCase(String text, String needle, int from) {
+        char first = needle.charAt(0);
+        char firstUpper = Character.toUpperCase(first);
+        for (int i = from; i <= text.length() - needle.length(); i++) {
+            char c = text.charAt(i);
+            if ((c == first || c == firstUpper) && text.regionMatches(true, i, needle, 0, needle.length())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
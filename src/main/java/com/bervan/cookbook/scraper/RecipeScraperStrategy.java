@@ -2,8 +2,39 @@ package com.bervan.cookbook.scraper;
 
 import com.bervan.cookbook.model.ScrapedRecipeData;
 
+import java.util.Set;
+
 public interface RecipeScraperStrategy {
     String getName();
 
     ScrapedRecipeData scrape(String html);
+
+    /**
+     * Like {@link #scrape(String)}, but returns null instead of handing the page to the
+     * strategy named by {@link #getFallbackName()}, so the registry can run that one itself.
+     */
+    default ScrapedRecipeData scrapeWithoutFallback(String html) {
+        return scrape(html);
+    }
+
+    /**
+     * Strategy that {@link #scrape(String)} hands pages to when it cannot read them, or null.
+     */
+    default String getFallbackName() {
+        return null;
+    }
+
+    /**
+     * Hosts (without "www.") whose pages this strategy is picked for by auto-detection.
+     */
+    default Set<String> getSupportedHosts() {
+        return Set.of();
+    }
+
+    /**
+     * Cheap check, without building a DOM, whether the page carries the markup this strategy reads.
+     */
+    default boolean recognizes(String html) {
+        return false;
+    }
 }
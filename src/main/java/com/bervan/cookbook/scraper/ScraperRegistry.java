@@ -0,0 +1,203 @@
+package com.bervan.cookbook.scraper;
+
+import com.bervan.cookbook.model.ScrapedRecipeData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Name -> strategy lookup built once at startup. Every registered strategy is wrapped in
+ * an {@link InstrumentedScraper}, so {@link #getStats()} shows time, throughput and error
+ * rate per scraper; a strategy's fallback is routed through the fallback's own wrapper,
+ * so pages it hands over are counted there. The pseudo-strategy {@link #AUTO_DETECT} picks a strategy for each
+ * page: by the host of its URL (given or taken from the canonical link), then by the first
+ * strategy that recognizes the page markup, then the first registered one.
+ */
+@Component
+public class ScraperRegistry {
+    private static final Logger log = LoggerFactory.getLogger(ScraperRegistry.class);
+    public static final String AUTO_DETECT = "Auto";
+
+    private static final Pattern CANONICAL_LINK = Pattern.compile(
+            "<link\\b[^>]*\\brel\\s*=\\s*[\"']?canonical\\b[^>]*>", Pattern.CASE_INSENSITIVE);
+    private static final Pattern HREF = Pattern.compile(
+            "\\bhref\\s*=\\s*[\"']?([^\"'\\s>]+)", Pattern.CASE_INSENSITIVE);
+
+    private final List<InstrumentedScraper> strategies;
+    private final Map<String, RecipeScraperStrategy> byName;
+    private final Map<String, InstrumentedScraper> byHost;
+    private final List<String> names;
+
+    public ScraperRegistry(List<RecipeScraperStrategy> scraperStrategies) {
+        List<InstrumentedScraper> instrumented = new ArrayList<>();
+        Map<String, RecipeScraperStrategy> nameMap = new HashMap<>();
+        Map<String, InstrumentedScraper> hostMap = new HashMap<>();
+        if (scraperStrategies != null) {
+            for (RecipeScraperStrategy strategy : scraperStrategies) {
+                InstrumentedScraper scraper = new InstrumentedScraper(strategy);
+                if (nameMap.putIfAbsent(scraper.getName(), scraper) != null) {
+                    throw new IllegalStateException("Duplicate scraper name: " + scraper.getName());
+                }
+                instrumented.add(scraper);
+                for (String host : strategy.getSupportedHosts()) {
+                    hostMap.putIfAbsent(normalizeHost(host), scraper);
+                }
+            }
+        }
+        for (InstrumentedScraper scraper : instrumented) {
+            String fallbackName = scraper.getFallbackName();
+            if (fallbackName != null && nameMap.get(fallbackName) instanceof InstrumentedScraper fallback
+                    && fallback != scraper) {
+                scraper.setFallback(fallback);
+            }
+        }
+        nameMap.put(AUTO_DETECT, new AutoDetectingScraper());
+
+        this.strategies = List.copyOf(instrumented);
+        this.byName = Map.copyOf(nameMap);
+        this.byHost = Map.copyOf(hostMap);
+        this.names = instrumented.stream().map(RecipeScraperStrategy::getName).toList();
+    }
+
+    /**
+     * @return names of the registered strategies, in registration order, without {@link #AUTO_DETECT}
+     */
+    public List<String> getNames() {
+        return names;
+    }
+
+    public Optional<RecipeScraperStrategy> find(String name) {
+        return name != null ? Optional.ofNullable(byName.get(name)) : Optional.empty();
+    }
+
+    /**
+     * @param sourceUrl page URL when known, may be null
+     */
+    public RecipeScraperStrategy detect(String sourceUrl, String html) {
+        if (strategies.isEmpty()) {
+            throw new IllegalStateException("No scrapers registered");
+        }
+
+        String host = hostOf(sourceUrl != null ? sourceUrl : canonicalUrl(html));
+        if (host != null) {
+            InstrumentedScraper byHostMatch = byHost.get(host);
+            if (byHostMatch != null) {
+                return byHostMatch;
+            }
+        }
+        for (InstrumentedScraper strategy : strategies) {
+            if (strategy.recognizes(html)) {
+                return strategy;
+            }
+        }
+        return strategies.get(0);
+    }
+
+    public List<ScraperStats> getStats() {
+        return strategies.stream().map(InstrumentedScraper::stats).toList();
+    }
+
+    public void resetStats() {
+        strategies.forEach(InstrumentedScraper::reset);
+    }
+
+    private static String canonicalUrl(String html) {
+        if (html == null) return null;
+        int headEnd = html.indexOf("</head");
+        Matcher link = CANONICAL_LINK.matcher(html);
+        if (headEnd >= 0) {
+            link.region(0, headEnd);
+        }
+        if (!link.find()) return null;
+        Matcher href = HREF.matcher(link.group());
+        return href.find() ? href.group(1) : null;
+    }
+
+    private static String hostOf(String url) {
+        if (url == null || url.isBlank()) return null;
+        try {
+            String host = new URI(url.trim()).getHost();
+            return host != null ? normalizeHost(host) : null;
+        } catch (URISyntaxException e) {
+            return null;
+        }
+    }
+
+    private static String normalizeHost(String host) {
+        String lower = host.toLowerCase();
+        return lower.startsWith("www.") ? lower.substring(4) : lower;
+    }
+
+    private final class AutoDetectingScraper implements RecipeScraperStrategy {
+        @Override
+        public String getName() {
+            return AUTO_DETECT;
+        }
+
+        @Override
+        public ScrapedRecipeData scrape(String html) {
+            RecipeScraperStrategy strategy = detect(null, html);
+            log.debug("Auto-detected scraper: {}", strategy.getName());
+            return strategy.scrape(html);
+        }
+    }
+
+    public static final class ScraperStats {
+        private final String name;
+        private final long callCount;
+        private final long errorCount;
+        private final long totalNanos;
+        private final long maxNanos;
+        private final long totalChars;
+
+        ScraperStats(String name, long callCount, long errorCount, long totalNanos, long maxNanos, long totalChars) {
+            this.name = name;
+            this.callCount = callCount;
+            this.errorCount = errorCount;
+            this.totalNanos = totalNanos;
+            this.maxNanos = maxNanos;
+            this.totalChars = totalChars;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getCallCount() {
+            return callCount;
+        }
+
+        public long getErrorCount() {
+            return errorCount;
+        }
+
+        public double getErrorRate() {
+            return callCount == 0 ? 0 : (double) errorCount / callCount;
+        }
+
+        public double getAverageMillis() {
+            return callCount == 0 ? 0 : totalNanos / 1_000_000.0 / callCount;
+        }
+
+        public double getMaxMillis() {
+            return maxNanos / 1_000_000.0;
+        }
+
+        /**
+         * Pages per second of scraping time on a single thread.
+         */
+        public double getPagesPerSecond() {
+            return totalNanos == 0 ? 0 : callCount * 1_000_000_000.0 / totalNanos;
+        }
+
+        public double getCharsPerSecond() {
+            return totalNanos == 0 ? 0 : totalChars * 1_000_000_000.0 / totalNanos;
+        }
+    }
+}
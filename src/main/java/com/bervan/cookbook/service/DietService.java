@@ -2,9 +2,12 @@ package com.bervan.cookbook.service;
 
 import com.bervan.common.search.SearchService;
 import com.bervan.common.service.BaseService;
+import com.bervan.cookbook.event.IngredientUsageChangedEvent;
+import com.bervan.cookbook.index.IngredientUsageCounters;
 import com.bervan.cookbook.model.*;
 import com.bervan.cookbook.repository.DietDayRepository;
 import com.bervan.cookbook.repository.DietMealItemRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
@@ -17,12 +20,28 @@ public class DietService extends BaseService<UUID, DietDay> {
 
     private final DietDayRepository dietDayRepository;
     private final DietMealItemRepository dietMealItemRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     public DietService(DietDayRepository repository, SearchService searchService,
-                       DietMealItemRepository dietMealItemRepository) {
+                       DietMealItemRepository dietMealItemRepository,
+                       ApplicationEventPublisher eventPublisher) {
         super(repository, searchService);
         this.dietDayRepository = repository;
         this.dietMealItemRepository = dietMealItemRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    public DietDay save(DietDay day) {
+        DietDay saved = super.save(day);
+        eventPublisher.publishEvent(IngredientUsageChangedEvent.of(saved));
+        return saved;
+    }
+
+    @Override
+    public void delete(DietDay day) {
+        super.delete(day);
+        eventPublisher.publishEvent(IngredientUsageChangedEvent.deleted(IngredientUsageCounters.Source.DIET, day.getId()));
     }
 
     public DietDay getOrCreateDay(LocalDate date) {
@@ -0,0 +1,105 @@
+package com.bervan.cookbook.service;
+
+import com.bervan.cookbook.model.Ingredient;
+
+import java.util.*;
+
+/**
+ * Ingredient resolution scoped to one import. Every text is normalized at most once per
+ * session, and ingredients created for unresolved texts are remembered, so later recipes
+ * reuse them without querying again. Not thread-safe: it belongs to the import's writer thread.
+ * <p>
+ * Ingredients created inside a transaction stay pending until {@link #commit()}, and
+ * {@link #rollback()} forgets them so a failed batch does not leave references to rows that
+ * were never written.
+ */
+final class IngredientImportSession {
+    private final IngredientNormalizationEngine normalizationEngine;
+    private final IngredientService ingredientService;
+
+    // Lowercased, trimmed text -> ingredient
+    private final Map<String, Ingredient> resolved = new HashMap<>();
+    private final Set<String> unresolved = new HashSet<>();
+    private final Map<String, Ingredient> pending = new HashMap<>();
+
+    IngredientImportSession(IngredientNormalizationEngine normalizationEngine, IngredientService ingredientService) {
+        this.normalizationEngine = normalizationEngine;
+        this.ingredientService = ingredientService;
+    }
+
+    /**
+     * Normalizes the texts not seen in this session yet. Meant to run outside the write transaction.
+     */
+    void prepare(Collection<String> texts) {
+        Map<String, String> unseen = new HashMap<>();
+        for (String text : texts) {
+            String key = key(text);
+            if (key != null && !resolved.containsKey(key) && !unresolved.contains(key)) {
+                unseen.putIfAbsent(key, text);
+            }
+        }
+        if (unseen.isEmpty()) {
+            return;
+        }
+
+        Map<String, Ingredient> normalized = normalizationEngine.normalizeAll(unseen.values());
+        for (Map.Entry<String, String> entry : unseen.entrySet()) {
+            Ingredient ingredient = normalized.get(entry.getValue());
+            if (ingredient != null) {
+                resolved.put(entry.getKey(), ingredient);
+            } else {
+                unresolved.add(entry.getKey());
+            }
+        }
+    }
+
+    /**
+     * Resolves the texts for writing, creating each missing ingredient once. Must run inside
+     * the write transaction, after {@link #prepare(Collection)}.
+     *
+     * @return text as given -> ingredient
+     */
+    Map<String, Ingredient> ingredientsFor(Collection<String> texts) {
+        Map<String, Ingredient> result = new HashMap<>();
+        List<String> toCreate = new ArrayList<>();
+        for (String text : texts) {
+            String key = key(text);
+            if (key == null) continue;
+            Ingredient ingredient = resolved.get(key);
+            if (ingredient == null) {
+                ingredient = pending.get(key);
+            }
+            if (ingredient != null) {
+                result.put(text, ingredient);
+            } else {
+                toCreate.add(text);
+            }
+        }
+
+        if (!toCreate.isEmpty()) {
+            for (Map.Entry<String, Ingredient> entry : ingredientService.findOrCreateAllByName(toCreate).entrySet()) {
+                pending.putIfAbsent(key(entry.getKey()), entry.getValue());
+                result.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return result;
+    }
+
+    void commit() {
+        resolved.putAll(pending);
+        unresolved.removeAll(pending.keySet());
+        pending.clear();
+    }
+
+    void rollback() {
+        pending.clear();
+    }
+
+    int size() {
+        return resolved.size();
+    }
+
+    private static String key(String text) {
+        return text == null || text.isBlank() ? null : text.trim().toLowerCase();
+    }
+}
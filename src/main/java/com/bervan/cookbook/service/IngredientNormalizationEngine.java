@@ -1,139 +1,195 @@
 package com.bervan.cookbook.service;
 
+import com.bervan.cookbook.event.IngredientChangedEvent;
+import com.bervan.cookbook.index.IngredientTextIndex;
+import com.bervan.cookbook.index.NormalizationCache;
 import com.bervan.cookbook.model.Ingredient;
 import com.bervan.cookbook.model.IngredientAlias;
-import com.bervan.cookbook.repository.IngredientAliasRepository;
 import com.bervan.cookbook.repository.IngredientRepository;
+import com.bervan.cookbook.text.PolishTokenizer;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
 
-import java.text.Normalizer;
 import java.util.*;
 import java.util.stream.Collectors;
 
 @Service
 public class IngredientNormalizationEngine {
-    private static final Set<String> NOISE_WORDS = Set.of(
-            "do", "na", "z", "ze", "od", "w", "i", "lub", "albo", "świeży", "świeża", "świeże",
-            "duży", "duża", "duże", "mały", "mała", "małe", "średni", "średnia", "średnie"
-    );
+    // Any whole word of 2+ letters shared with a name or alias shares at least 2 padded trigrams
+    private static final int MIN_TRIGRAM_OVERLAP = 2;
 
     private final IngredientRepository ingredientRepository;
-    private final IngredientAliasRepository aliasRepository;
+    private final NormalizationCache cache;
+    private volatile IngredientTextIndex textIndex;
 
     public IngredientNormalizationEngine(IngredientRepository ingredientRepository,
-                                         IngredientAliasRepository aliasRepository) {
+                                         @Value("${cook-book.normalization.cache-size:10000}") int cacheSize) {
         this.ingredientRepository = ingredientRepository;
-        this.aliasRepository = aliasRepository;
+        this.cache = new NormalizationCache(cacheSize);
     }
 
     public Optional<Ingredient> normalize(String inputText) {
         if (inputText == null || inputText.isBlank()) {
             return Optional.empty();
         }
+        return Optional.ofNullable(normalizeAll(List.of(inputText)).get(inputText));
+    }
 
-        String cleaned = inputText.trim().toLowerCase();
+    /**
+     * Normalizes many inputs at once: duplicates are resolved once, cached results
+     * (including misses) are reused, exact name and alias matches come from a single
+     * query, then stem matches come from the text index and only the leftovers go
+     * through fuzzy matching.
+     *
+     * @return input text -> ingredient, unresolved inputs are absent
+     */
+    public Map<String, Ingredient> normalizeAll(Collection<String> inputTexts) {
+        Map<String, List<String>> inputsByCleaned = new LinkedHashMap<>();
+        for (String inputText : inputTexts) {
+            if (inputText == null || inputText.isBlank()) continue;
+            inputsByCleaned.computeIfAbsent(inputText.trim().toLowerCase(), k -> new ArrayList<>()).add(inputText);
+        }
 
-        // 1. Exact match on name
-        Optional<Ingredient> byName = ingredientRepository.findByNameIgnoreCase(cleaned);
-        if (byName.isPresent() && !Boolean.TRUE.equals(byName.get().isDeleted())) {
-            return byName;
+        if (inputsByCleaned.isEmpty()) {
+            return Collections.emptyMap();
         }
 
-        // 2. Exact match on alias
-        Optional<IngredientAlias> byAlias = aliasRepository.findByAliasNameIgnoreCase(cleaned);
-        if (byAlias.isPresent() && !Boolean.TRUE.equals(byAlias.get().isDeleted())) {
-            return Optional.of(byAlias.get().getIngredient());
+        long cacheGeneration = cache.generation();
+        Map<String, Optional<Ingredient>> cached = new HashMap<>();
+        for (String cleaned : inputsByCleaned.keySet()) {
+            Optional<Ingredient> hit = cache.get(cleaned);
+            if (hit != null) {
+                cached.put(cleaned, hit);
+            }
         }
 
-        // 3. Fuzzy matching
-        List<IngredientMatch> candidates = findCandidates(inputText, 1);
-        if (!candidates.isEmpty() && candidates.get(0).getScore() >= 0.4) {
-            return Optional.of(candidates.get(0).getIngredient());
+        // 1. Exact match on name, then on alias
+        Map<String, Ingredient> byName = new HashMap<>();
+        Map<String, Ingredient> byAlias = new HashMap<>();
+        Set<String> uncached = new HashSet<>(inputsByCleaned.keySet());
+        uncached.removeAll(cached.keySet());
+        List<Ingredient> exactMatches = uncached.isEmpty()
+                ? Collections.emptyList() : ingredientRepository.findByNameOrAliasIn(uncached);
+        for (Ingredient ingredient : exactMatches) {
+            if (Boolean.TRUE.equals(ingredient.isDeleted())) continue;
+            if (ingredient.getName() != null) {
+                byName.putIfAbsent(ingredient.getName().toLowerCase(), ingredient);
+            }
+            if (ingredient.getAliases() != null) {
+                for (IngredientAlias alias : ingredient.getAliases()) {
+                    if (Boolean.TRUE.equals(alias.isDeleted()) || alias.getAliasName() == null) continue;
+                    byAlias.putIfAbsent(alias.getAliasName().toLowerCase(), ingredient);
+                }
+            }
         }
 
-        return Optional.empty();
-    }
+        Map<String, Ingredient> result = new LinkedHashMap<>();
+        for (Map.Entry<String, List<String>> entry : inputsByCleaned.entrySet()) {
+            String cleaned = entry.getKey();
+            Ingredient ingredient;
+            if (cached.containsKey(cleaned)) {
+                ingredient = cached.get(cleaned).orElse(null);
+            } else {
+                ingredient = resolveUncached(cleaned, entry.getValue().get(0), byName, byAlias);
+                cache.put(cleaned, ingredient, cacheGeneration);
+            }
 
-    public List<IngredientMatch> findCandidates(String inputText, int maxResults) {
-        if (inputText == null || inputText.isBlank()) {
-            return Collections.emptyList();
+            if (ingredient != null) {
+                for (String inputText : entry.getValue()) {
+                    result.put(inputText, ingredient);
+                }
+            }
         }
 
-        Set<String> inputTokens = tokenize(inputText);
-        if (inputTokens.isEmpty()) {
-            return Collections.emptyList();
+        return result;
+    }
+
+    private Ingredient resolveUncached(String cleaned, String inputText,
+                                       Map<String, Ingredient> byName, Map<String, Ingredient> byAlias) {
+        Ingredient ingredient = byName.get(cleaned);
+        if (ingredient == null) {
+            ingredient = byAlias.get(cleaned);
         }
 
-        List<IngredientMatch> matches = new ArrayList<>();
+        // 2. Same stems as the name or an alias of exactly one ingredient, e.g. "marchewki" for "marchewka"
+        if (ingredient == null) {
+            ingredient = getTextIndex().findExact(PolishTokenizer.tokenize(inputText));
+        }
 
-        // Search ingredients by any token
-        Set<Ingredient> candidateIngredients = new HashSet<>();
-        for (String token : inputTokens) {
-            if (token.length() >= 2) {
-                candidateIngredients.addAll(ingredientRepository.findByNameContainingIgnoreCase(token));
-                aliasRepository.findByAliasNameContainingIgnoreCase(token).stream()
-                        .map(IngredientAlias::getIngredient)
-                        .forEach(candidateIngredients::add);
+        // 3. Fuzzy matching only for inputs without an exact hit
+        if (ingredient == null) {
+            List<IngredientMatch> candidates = findCandidates(inputText, 1);
+            if (!candidates.isEmpty() && candidates.get(0).getScore() >= 0.4) {
+                ingredient = candidates.get(0).getIngredient();
             }
         }
+        return ingredient;
+    }
 
-        for (Ingredient ingredient : candidateIngredients) {
-            if (Boolean.TRUE.equals(ingredient.isDeleted())) {
-                continue;
-            }
+    public NormalizationCache.Stats getCacheStats() {
+        return cache.getStats();
+    }
 
-            // Score against name
-            double nameScore = jaccardSimilarity(inputTokens, tokenize(ingredient.getName()));
-            String matchedVia = "fuzzy-name";
+    public List<IngredientMatch> findCandidates(String inputText, int maxResults) {
+        if (inputText == null || inputText.isBlank()) {
+            return Collections.emptyList();
+        }
 
-            // Score against aliases
-            if (ingredient.getAliases() != null) {
-                for (IngredientAlias alias : ingredient.getAliases()) {
-                    if (Boolean.TRUE.equals(alias.isDeleted())) continue;
-                    double aliasScore = jaccardSimilarity(inputTokens, tokenize(alias.getAliasName()));
-                    if (aliasScore > nameScore) {
-                        nameScore = aliasScore;
-                        matchedVia = "fuzzy-alias";
-                    }
-                }
-            }
+        Set<String> inputTokens = PolishTokenizer.tokenize(inputText);
+        if (inputTokens.isEmpty()) {
+            return Collections.emptyList();
+        }
 
-            if (nameScore > 0) {
-                IngredientMatch match = new IngredientMatch();
-                match.setIngredient(ingredient);
-                match.setScore(nameScore);
-                match.setMatchedVia(matchedVia);
-                matches.add(match);
-            }
+        // Candidate ingredients by trigram overlap, scored on precomputed token sets;
+        // unknown tokens of 5+ letters are corrected to the closest known token first
+        List<IngredientMatch> matches = new ArrayList<>();
+        for (IngredientTextIndex.Candidate candidate : getTextIndex().findCandidates(inputTokens, MIN_TRIGRAM_OVERLAP)) {
+            IngredientMatch match = new IngredientMatch();
+            match.setIngredient(candidate.getIngredient());
+            match.setScore(candidate.getScore());
+            match.setMatchedVia(candidate.isViaAlias() ? "fuzzy-alias" : "fuzzy-name");
+            matches.add(match);
         }
 
-        matches.sort(Comparator.comparingDouble(IngredientMatch::getScore).reversed());
+        // Equal scores usually mean equal stems; prefer the closest surface form
+        Map<IngredientMatch, Integer> surfaceDistances = new IdentityHashMap<>();
+        matches.sort(Comparator.comparingDouble(IngredientMatch::getScore).reversed()
+                .thenComparingInt(match -> surfaceDistances.computeIfAbsent(match,
+                        m -> IngredientTextIndex.surfaceDistance(inputText, m.getIngredient()))));
         return matches.stream().limit(maxResults).collect(Collectors.toList());
     }
 
-    private Set<String> tokenize(String text) {
-        String normalized = stripDiacritics(text.trim().toLowerCase());
-        return Arrays.stream(normalized.split("[\\s,]+"))
-                .filter(t -> !t.isBlank())
-                .filter(t -> t.length() >= 2)
-                .filter(t -> !NOISE_WORDS.contains(t))
-                .collect(Collectors.toSet());
-    }
-
-    private String stripDiacritics(String text) {
-        String normalized = Normalizer.normalize(text, Normalizer.Form.NFD);
-        // Also handle Polish-specific: ł→l
-        normalized = normalized.replace("ł", "l").replace("Ł", "L");
-        return normalized.replaceAll("[\\p{InCombiningDiacriticalMarks}]", "");
+    /**
+     * Applies a single ingredient change to the resident text index and evicts the
+     * cached results it could affect after the saving transaction commits. If the
+     * index has not been built yet the next lookup loads it.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onIngredientChanged(IngredientChangedEvent event) {
+        cache.invalidate(event.ingredientId(), event.ingredient());
+        if (textIndex == null) {
+            return;
+        }
+        if (event.isDeleted()) {
+            textIndex.remove(event.ingredientId());
+        } else {
+            textIndex.put(event.ingredient());
+        }
     }
 
-    private double jaccardSimilarity(Set<String> a, Set<String> b) {
-        if (a.isEmpty() && b.isEmpty()) return 0;
-        Set<String> intersection = new HashSet<>(a);
-        intersection.retainAll(b);
-        Set<String> union = new HashSet<>(a);
-        union.addAll(b);
-        return (double) intersection.size() / union.size();
+    private IngredientTextIndex getTextIndex() {
+        IngredientTextIndex current = textIndex;
+        if (current == null) {
+            synchronized (this) {
+                current = textIndex;
+                if (current == null) {
+                    current = IngredientTextIndex.build(ingredientRepository.findByDeletedFalse());
+                    textIndex = current;
+                }
+            }
+        }
+        return current;
     }
 
     public static class IngredientMatch {
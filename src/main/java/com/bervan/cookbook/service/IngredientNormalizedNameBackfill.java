@@ -0,0 +1,142 @@
+package com.bervan.cookbook.service;
+
+import com.bervan.cookbook.event.IngredientChangedEvent;
+import com.bervan.cookbook.model.Ingredient;
+import com.bervan.cookbook.model.IngredientAlias;
+import com.bervan.cookbook.repository.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Fills {@code Ingredient.normalizedName} for rows written before the column existed. The
+ * unique constraint ignores their NULLs, so until then a new "Mąka" could duplicate an old
+ * "mąka" and name lookups by normalized name missed them.
+ * <p>
+ * Legacy rows whose names normalize to the same value are merged first: one survivor is kept
+ * (an already normalized row, else one with macros), recipe lines, diet
+ * items, cart items and aliases of the others are moved to it, and the others are soft-deleted
+ * with no normalized name. Only then is the column filled, so the constraint never fails.
+ * Deleted rows keep no normalized name; any written before deletion cleared it is freed first.
+ * Runs once per startup and does nothing when no live row is missing the column.
+ */
+@Component
+public class IngredientNormalizedNameBackfill {
+    private static final Logger log = LoggerFactory.getLogger(IngredientNormalizedNameBackfill.class);
+    private static final Comparator<Ingredient> SURVIVOR_FIRST = Comparator
+            .comparing((Ingredient ingredient) -> ingredient.getNormalizedName() == null)
+            .thenComparing(ingredient -> !ingredient.hasMacros())
+            .thenComparing(Ingredient::getModificationDate, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(Ingredient::getId);
+
+    private final IngredientRepository ingredientRepository;
+    private final IngredientAliasRepository aliasRepository;
+    private final RecipeIngredientRepository recipeIngredientRepository;
+    private final DietMealItemRepository dietMealItemRepository;
+    private final ShoppingCartItemRepository cartItemRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    public IngredientNormalizedNameBackfill(IngredientRepository ingredientRepository,
+                                            IngredientAliasRepository aliasRepository,
+                                            RecipeIngredientRepository recipeIngredientRepository,
+                                            DietMealItemRepository dietMealItemRepository,
+                                            ShoppingCartItemRepository cartItemRepository,
+                                            ApplicationEventPublisher eventPublisher,
+                                            PlatformTransactionManager transactionManager) {
+        this.ingredientRepository = ingredientRepository;
+        this.aliasRepository = aliasRepository;
+        this.recipeIngredientRepository = recipeIngredientRepository;
+        this.dietMealItemRepository = dietMealItemRepository;
+        this.cartItemRepository = cartItemRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        Map<UUID, UUID> merged = transactionTemplate.execute(status -> backfillInTransaction());
+        if (merged.isEmpty()) {
+            return;
+        }
+
+        // Resident indexes may already hold the merged rows; the survivors are reloaded with their moved aliases
+        merged.keySet().forEach(id -> eventPublisher.publishEvent(IngredientChangedEvent.deleted(id)));
+        ingredientRepository.findAllById(new HashSet<>(merged.values()))
+                .forEach(survivor -> eventPublisher.publishEvent(IngredientChangedEvent.saved(survivor)));
+    }
+
+    /**
+     * @return merged duplicate id -> survivor id
+     */
+    private Map<UUID, UUID> backfillInTransaction() {
+        int freed = ingredientRepository.clearNormalizedNameOfDeleted();
+        if (freed > 0) {
+            log.info("Cleared normalized names of {} deleted ingredients", freed);
+        }
+
+        List<Ingredient> legacy = ingredientRepository.findByNormalizedNameIsNullAndDeletedFalse().stream()
+                .filter(ingredient -> ingredient.getName() != null)
+                .toList();
+        if (legacy.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        Map<String, List<Ingredient>> groups = legacy.stream()
+                .collect(Collectors.groupingBy(ingredient -> Ingredient.normalizeName(ingredient.getName())));
+        for (Ingredient normalized : ingredientRepository.findByNormalizedNameIn(groups.keySet())) {
+            groups.get(normalized.getNormalizedName()).add(normalized);
+        }
+
+        Map<UUID, UUID> merged = new HashMap<>();
+        for (Map.Entry<String, List<Ingredient>> group : groups.entrySet()) {
+            List<Ingredient> rows = new ArrayList<>(group.getValue());
+            rows.sort(SURVIVOR_FIRST);
+            Ingredient survivor = rows.get(0);
+            for (Ingredient duplicate : rows.subList(1, rows.size())) {
+                mergeInto(duplicate, survivor);
+                merged.put(duplicate.getId(), survivor.getId());
+            }
+            if (survivor.getNormalizedName() == null) {
+                ingredientRepository.updateNormalizedName(survivor.getId(), group.getKey());
+            }
+        }
+
+        log.info("Backfilled normalized names of {} ingredients, merged {} duplicates",
+                legacy.size() - merged.size(), merged.size());
+        return merged;
+    }
+
+    private void mergeInto(Ingredient duplicate, Ingredient survivor) {
+        recipeIngredientRepository.reassignIngredient(duplicate, survivor);
+        dietMealItemRepository.reassignIngredient(duplicate, survivor);
+        cartItemRepository.reassignIngredient(duplicate, survivor);
+
+        Set<String> survivorNames = new HashSet<>();
+        survivorNames.add(survivor.getName().trim().toLowerCase());
+        for (IngredientAlias alias : survivor.getAliases()) {
+            if (alias.getAliasName() != null) {
+                survivorNames.add(alias.getAliasName().trim().toLowerCase());
+            }
+        }
+        List<UUID> movedAliases = new ArrayList<>();
+        for (IngredientAlias alias : duplicate.getAliases()) {
+            if (alias.getAliasName() != null && survivorNames.add(alias.getAliasName().trim().toLowerCase())) {
+                movedAliases.add(alias.getId());
+            }
+        }
+        if (!movedAliases.isEmpty()) {
+            aliasRepository.moveToIngredient(movedAliases, survivor);
+        }
+
+        ingredientRepository.markMerged(duplicate.getId());
+    }
+}
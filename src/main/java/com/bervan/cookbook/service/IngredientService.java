@@ -2,44 +2,170 @@ package com.bervan.cookbook.service;
 
 import com.bervan.common.search.SearchService;
 import com.bervan.common.service.BaseService;
+import com.bervan.cookbook.event.IngredientChangedEvent;
+import com.bervan.cookbook.index.IngredientUsageCounters.Source;
 import com.bervan.cookbook.model.Ingredient;
 import com.bervan.cookbook.model.IngredientAlias;
 import com.bervan.cookbook.repository.IngredientAliasRepository;
 import com.bervan.cookbook.repository.IngredientRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 @Service
 public class IngredientService extends BaseService<UUID, Ingredient> {
+    private static final int NAME_LOCK_STRIPES = 64;
+    private static final int SEARCH_COUNT_CACHE_SIZE = 1000;
     private final IngredientRepository ingredientRepository;
     private final IngredientAliasRepository aliasRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final IngredientSuggestService suggestService;
+    private final IngredientUsageService usageService;
+    // Serializes creation per normalized name inside this JVM; the unique normalizedName column covers the rest
+    private final ReentrantLock[] nameLocks;
+    // Lowercased search text -> searchByText result count, valid only for the generation it was counted in
+    private final Map<String, SearchCount> searchCountCache = new ConcurrentHashMap<>();
+    private final AtomicLong searchCountGeneration = new AtomicLong();
 
     public IngredientService(IngredientRepository repository, SearchService searchService,
-                             IngredientAliasRepository aliasRepository) {
+                             IngredientAliasRepository aliasRepository,
+                             ApplicationEventPublisher eventPublisher,
+                             IngredientSuggestService suggestService,
+                             IngredientUsageService usageService) {
         super(repository, searchService);
         this.ingredientRepository = repository;
         this.aliasRepository = aliasRepository;
+        this.eventPublisher = eventPublisher;
+        this.suggestService = suggestService;
+        this.usageService = usageService;
+        this.nameLocks = new ReentrantLock[NAME_LOCK_STRIPES];
+        for (int i = 0; i < nameLocks.length; i++) {
+            nameLocks[i] = new ReentrantLock();
+        }
+    }
+
+    @Override
+    public Ingredient save(Ingredient ingredient) {
+        Ingredient saved = super.save(ingredient);
+        eventPublisher.publishEvent(IngredientChangedEvent.saved(saved));
+        return saved;
     }
 
+    @Override
+    public void delete(Ingredient ingredient) {
+        super.delete(ingredient);
+        eventPublisher.publishEvent(IngredientChangedEvent.deleted(ingredient.getId()));
+    }
+
+    /**
+     * Existing ingredients are returned without locking. Creation is serialized per name
+     * with a striped lock and re-checks the name under it; an insert that still loses to
+     * another instance hits the unique normalized name and falls back to the winner's row.
+     */
     public Ingredient findOrCreateByName(String name) {
-        Optional<Ingredient> existing = ingredientRepository.findByNameIgnoreCase(name.trim());
+        Optional<Ingredient> existing = findByNameOrAlias(name.trim());
+        return existing.isPresent() ? existing.get() : createOrFetch(name.trim());
+    }
+
+    private Optional<Ingredient> findByNameOrAlias(String name) {
+        Optional<Ingredient> existing = ingredientRepository.findByNameIgnoreCaseAndDeletedFalse(name);
         if (existing.isPresent()) {
-            return existing.get();
+            return existing;
         }
+        return aliasRepository.findFirstByAliasNameIgnoreCaseAndDeletedFalseAndIngredientDeletedFalse(name)
+                .map(IngredientAlias::getIngredient);
+    }
+
+    private Ingredient createOrFetch(String name) {
+        String normalizedName = Ingredient.normalizeName(name);
+        ReentrantLock lock = nameLocks[Math.floorMod(normalizedName.hashCode(), nameLocks.length)];
+        lock.lock();
+        try {
+            Optional<Ingredient> existing = findByNameOrAlias(name);
+            if (existing.isPresent()) {
+                return existing.get();
+            }
 
-        Optional<IngredientAlias> alias = aliasRepository.findByAliasNameIgnoreCase(name.trim());
-        if (alias.isPresent()) {
-            return alias.get().getIngredient();
+            return insertOrFetch(name);
+        } finally {
+            lock.unlock();
         }
+    }
 
+    /**
+     * Persists a new ingredient without looking for an existing one first. Outside a
+     * transaction a lost race hits the unique normalized name here and the winner's row is
+     * returned; inside one the violation surfaces on flush and fails the caller's transaction.
+     */
+    private Ingredient insertOrFetch(String name) {
         Ingredient ingredient = new Ingredient();
         ingredient.setId(UUID.randomUUID());
-        ingredient.setName(name.trim());
+        ingredient.setName(name);
         ingredient.setCategory("Inne");
-        return save(ingredient);
+        ingredient.markNew();
+        try {
+            return save(ingredient);
+        } catch (DataIntegrityViolationException e) {
+            return ingredientRepository.findByNormalizedName(ingredient.getNormalizedName()).orElseThrow(() -> e);
+        }
+    }
+
+    /**
+     * Batch variant of {@link #findOrCreateByName(String)}: existing names and aliases come
+     * from one query, and each missing name (compared case-insensitively) is persisted once
+     * with no further lookups, so the inserts are flushed together in JDBC batches. A name
+     * created concurrently elsewhere fails the caller's transaction on the unique normalized
+     * name; a retry then finds it in the first query.
+     *
+     * @return name as given -> ingredient
+     */
+    public Map<String, Ingredient> findOrCreateAllByName(Collection<String> names) {
+        Map<String, List<String>> namesByKey = new LinkedHashMap<>();
+        for (String name : names) {
+            if (name == null || name.isBlank()) continue;
+            namesByKey.computeIfAbsent(name.trim().toLowerCase(), k -> new ArrayList<>()).add(name);
+        }
+        if (namesByKey.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        Map<String, Ingredient> byName = new HashMap<>();
+        Map<String, Ingredient> byAlias = new HashMap<>();
+        for (Ingredient ingredient : ingredientRepository.findByNameOrAliasIn(namesByKey.keySet())) {
+            if (ingredient.getName() != null) {
+                byName.putIfAbsent(ingredient.getName().toLowerCase(), ingredient);
+            }
+            if (ingredient.getAliases() != null) {
+                for (IngredientAlias alias : ingredient.getAliases()) {
+                    if (!Boolean.TRUE.equals(alias.isDeleted()) && alias.getAliasName() != null) {
+                        byAlias.putIfAbsent(alias.getAliasName().toLowerCase(), ingredient);
+                    }
+                }
+            }
+        }
+
+        Map<String, Ingredient> result = new HashMap<>();
+        for (Map.Entry<String, List<String>> entry : namesByKey.entrySet()) {
+            Ingredient ingredient = byName.get(entry.getKey());
+            if (ingredient == null) {
+                ingredient = byAlias.get(entry.getKey());
+            }
+            if (ingredient == null) {
+                ingredient = insertOrFetch(entry.getValue().get(0).trim());
+            }
+            for (String name : entry.getValue()) {
+                result.put(name, ingredient);
+            }
+        }
+        return result;
     }
 
     public void addAlias(UUID ingredientId, String aliasName) {
@@ -54,30 +180,101 @@ public class IngredientService extends BaseService<UUID, Ingredient> {
         }
     }
 
+    /**
+     * One window of ingredients whose name or alias contains the text, ranked in the
+     * database: names starting with the text first, then shorter names.
+     */
     public List<Ingredient> searchByText(String text, int offset, int limit) {
-        if (text == null || text.isBlank()) {
+        if (text == null || text.isBlank() || limit <= 0) {
             return Collections.emptyList();
         }
-        String searchText = text.trim();
+        String escaped = escapeLike(text.trim().toLowerCase());
+
+        if (offset % limit == 0) {
+            return ingredientRepository.searchByText("%" + escaped + "%", escaped + "%",
+                    PageRequest.of(offset / limit, limit));
+        }
+        // Window not aligned to a page: read up to its end and cut
+        List<Ingredient> head = ingredientRepository.searchByText("%" + escaped + "%", escaped + "%",
+                PageRequest.of(0, offset + limit));
+        return offset >= head.size() ? Collections.emptyList() : head.subList(offset, head.size());
+    }
 
-        List<Ingredient> byName = ingredientRepository.findByNameContainingIgnoreCase(searchText);
-        List<IngredientAlias> byAlias = aliasRepository.findByAliasNameContainingIgnoreCase(searchText);
+    /**
+     * @param source counted source, or null for all references
+     * @return up to {@code limit} live ingredients referenced most often, most used first
+     */
+    public List<Ingredient> mostUsed(Source source, int limit) {
+        // Counts of deleted ingredients linger until their references go, so ask for spares
+        List<UUID> ids = usageService.mostUsed(source, limit * 2);
+        Map<UUID, Ingredient> byId = new HashMap<>();
+        for (Ingredient ingredient : ingredientRepository.findAllById(ids)) {
+            if (!Boolean.TRUE.equals(ingredient.isDeleted())) {
+                byId.put(ingredient.getId(), ingredient);
+            }
+        }
+        return ids.stream().map(byId::get).filter(Objects::nonNull).limit(limit).toList();
+    }
 
-        Set<UUID> seen = new HashSet<>();
-        List<Ingredient> results = new ArrayList<>();
+    public List<Ingredient> suggest(String prefix, int limit) {
+        return suggestService.suggest(prefix, limit);
+    }
 
-        Stream.concat(byName.stream(), byAlias.stream().map(IngredientAlias::getIngredient))
-                .filter(i -> i.isDeleted() == null || !i.isDeleted())
-                .forEach(i -> {
-                    if (seen.add(i.getId())) {
-                        results.add(i);
-                    }
-                });
+    /**
+     * One window of autocomplete items: in-memory prefix suggestions ranked by usage (the most
+     * used ingredients for a blank filter), or {@link #searchByText} when no name or alias
+     * word starts with the filter.
+     */
+    public List<Ingredient> searchForAutocomplete(String filter, int offset, int limit) {
+        if (filter != null && !filter.isBlank() && suggestService.count(filter) == 0) {
+            return searchByText(filter, offset, limit);
+        }
+        List<Ingredient> suggestions = suggestService.suggest(filter, offset + limit);
+        return offset >= suggestions.size() ? Collections.emptyList() : suggestions.subList(offset, suggestions.size());
+    }
 
-        int end = Math.min(offset + limit, results.size());
-        if (offset >= results.size()) {
-            return Collections.emptyList();
+    public int countForAutocomplete(String filter) {
+        int suggestions = suggestService.count(filter);
+        if (suggestions == 0 && filter != null && !filter.isBlank()) {
+            return countByText(filter);
+        }
+        return suggestions;
+    }
+
+    /**
+     * Number of {@link #searchByText} results, cached per text until an ingredient changes.
+     */
+    public int countByText(String text) {
+        if (text == null || text.isBlank()) {
+            return 0;
+        }
+        String key = text.trim().toLowerCase();
+        // Read before counting: a change committed during the query leaves the entry stale, never served
+        long generation = searchCountGeneration.get();
+        SearchCount cached = searchCountCache.get(key);
+        if (cached != null && cached.generation() == generation) {
+            return (int) cached.count();
         }
-        return results.subList(offset, end);
+
+        long count = ingredientRepository.countByText("%" + escapeLike(key) + "%");
+        if (searchCountCache.size() >= SEARCH_COUNT_CACHE_SIZE) {
+            searchCountCache.clear();
+        }
+        searchCountCache.merge(key, new SearchCount(generation, count),
+                (current, counted) -> current.generation() > counted.generation() ? current : counted);
+        return (int) count;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onIngredientChanged(IngredientChangedEvent event) {
+        searchCountGeneration.incrementAndGet();
+        searchCountCache.clear();
+    }
+
+    private static String escapeLike(String text) {
+        return text.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
+
+    private record SearchCount(long generation, long count) {
     }
 }
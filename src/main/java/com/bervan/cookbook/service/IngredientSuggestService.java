@@ -0,0 +1,89 @@
+package com.bervan.cookbook.service;
+
+import com.bervan.cookbook.event.IngredientChangedEvent;
+import com.bervan.cookbook.index.IngredientSuggestIndex;
+import com.bervan.cookbook.model.Ingredient;
+import com.bervan.cookbook.repository.IngredientRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ingredient autocomplete served from a resident {@link IngredientSuggestIndex}, ranked by the
+ * counters of {@link IngredientUsageService}. The index is loaded once; ingredient changes are
+ * queued and merged into it on the next read, so a new or renamed ingredient is suggested right
+ * away and a burst of changes during an import costs one in-memory merge per read, not a table
+ * load. Changed usage alone only re-ranks it, at most once per {@link #RERANK_INTERVAL_NANOS}.
+ */
+@Service
+public class IngredientSuggestService {
+    private static final long RERANK_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+    private final IngredientRepository ingredientRepository;
+    private final IngredientUsageService usageService;
+    private volatile IngredientSuggestIndex index;
+    // Guarded by this; ingredient id -> new version, null when deleted
+    private final Map<UUID, Ingredient> pendingChanges = new HashMap<>();
+    private volatile boolean changesPending;
+    // Guarded by this
+    private long rankedUsageVersion;
+    private volatile long usageCheckedAtNanos;
+
+    public IngredientSuggestService(IngredientRepository ingredientRepository,
+                                    IngredientUsageService usageService) {
+        this.ingredientRepository = ingredientRepository;
+        this.usageService = usageService;
+    }
+
+    /**
+     * @return up to {@code limit} ingredients whose folded name or alias has a word starting
+     * with the prefix, most used first; the most used ingredients for a blank prefix
+     */
+    public List<Ingredient> suggest(String prefix, int limit) {
+        return getIndex().suggest(prefix, limit);
+    }
+
+    public int count(String prefix) {
+        return getIndex().count(prefix);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onIngredientChanged(IngredientChangedEvent event) {
+        if (index != null) {
+            pendingChanges.put(event.ingredientId(), event.isDeleted() ? null : event.ingredient());
+            changesPending = true;
+        }
+    }
+
+    private IngredientSuggestIndex getIndex() {
+        IngredientSuggestIndex current = index;
+        if (current != null && !changesPending && System.nanoTime() - usageCheckedAtNanos < RERANK_INTERVAL_NANOS) {
+            return current;
+        }
+        synchronized (this) {
+            current = index;
+            long usageVersion = usageService.version();
+            if (current == null) {
+                current = IngredientSuggestIndex.build(ingredientRepository.findByDeletedFalse(), usageService::getUsageCount);
+            } else if (!pendingChanges.isEmpty()) {
+                // Re-ranks with the current usage too
+                current = current.withChanges(pendingChanges, usageService::getUsageCount);
+                pendingChanges.clear();
+            } else if (usageVersion != rankedUsageVersion
+                    && System.nanoTime() - usageCheckedAtNanos >= RERANK_INTERVAL_NANOS) {
+                current = current.withUsage(usageService::getUsageCount);
+            }
+            changesPending = false;
+            if (current != index || usageVersion == rankedUsageVersion) {
+                rankedUsageVersion = usageVersion;
+                usageCheckedAtNanos = System.nanoTime();
+            }
+            index = current;
+            return current;
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package com.bervan.cookbook.service;
+
+import com.bervan.cookbook.event.IngredientUsageChangedEvent;
+import com.bervan.cookbook.event.RecipeChangedEvent;
+import com.bervan.cookbook.index.IngredientUsageCounters;
+import com.bervan.cookbook.index.IngredientUsageCounters.Source;
+import com.bervan.cookbook.model.RecipeIngredient;
+import com.bervan.cookbook.repository.DietMealItemRepository;
+import com.bervan.cookbook.repository.IngredientRepository;
+import com.bervan.cookbook.repository.RecipeIngredientRepository;
+import com.bervan.cookbook.repository.ShoppingCartItemRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * How often each ingredient is referenced by recipes, diet items and shopping carts, kept
+ * in memory and updated incrementally from change events instead of COUNT queries. The
+ * ingredients last seen for every recipe, diet day and cart are remembered as a sorted
+ * array of counter ordinals, so a save only applies the difference. Counts are loaded on
+ * first use from the reference rows, and changed counts are written to the ingredient
+ * table every cook-book.usage.flush-interval-seconds.
+ */
+@Service
+public class IngredientUsageService {
+    private static final Logger log = LoggerFactory.getLogger(IngredientUsageService.class);
+
+    private final IngredientRepository ingredientRepository;
+    private final RecipeIngredientRepository recipeIngredientRepository;
+    private final DietMealItemRepository dietMealItemRepository;
+    private final ShoppingCartItemRepository cartItemRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final long flushIntervalSeconds;
+
+    // Guarded by this
+    private IngredientUsageCounters counters;
+    private final Map<Source, Map<UUID, int[]>> ownerIngredients = new EnumMap<>(Source.class);
+    private ScheduledExecutorService flusher;
+
+    public IngredientUsageService(IngredientRepository ingredientRepository,
+                                  RecipeIngredientRepository recipeIngredientRepository,
+                                  DietMealItemRepository dietMealItemRepository,
+                                  ShoppingCartItemRepository cartItemRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${cook-book.usage.flush-interval-seconds:60}") long flushIntervalSeconds) {
+        this.ingredientRepository = ingredientRepository;
+        this.recipeIngredientRepository = recipeIngredientRepository;
+        this.dietMealItemRepository = dietMealItemRepository;
+        this.cartItemRepository = cartItemRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.flushIntervalSeconds = flushIntervalSeconds;
+    }
+
+    public synchronized long getUsageCount(UUID ingredientId) {
+        return getCounters().total(ingredientId);
+    }
+
+    public synchronized int getUsageCount(UUID ingredientId, Source source) {
+        return getCounters().get(ingredientId, source);
+    }
+
+    /**
+     * @param source counted source, or null for all references
+     */
+    public synchronized List<UUID> mostUsed(Source source, int limit) {
+        return getCounters().mostUsed(source, limit);
+    }
+
+    /**
+     * Changes whenever any count changes.
+     */
+    public synchronized long version() {
+        return getCounters().version();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onRecipeChanged(RecipeChangedEvent event) {
+        if (counters == null) {
+            return;
+        }
+        int[] ordinals = new int[0];
+        int count = 0;
+        if (!event.isDeleted() && event.recipe().getRecipeIngredients() != null) {
+            ordinals = new int[event.recipe().getRecipeIngredients().size()];
+            for (RecipeIngredient ri : event.recipe().getRecipeIngredients()) {
+                if (!Boolean.TRUE.equals(ri.isDeleted()) && ri.getIngredient() != null) {
+                    ordinals[count++] = counters.ordinalOf(ri.getIngredient().getId());
+                }
+            }
+        }
+        replace(Source.RECIPE, event.recipeId(), Arrays.copyOf(ordinals, count));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onUsageChanged(IngredientUsageChangedEvent event) {
+        if (counters != null) {
+            int[] ordinals = new int[event.ingredientIds().size()];
+            int count = 0;
+            for (UUID ingredientId : event.ingredientIds()) {
+                ordinals[count++] = counters.ordinalOf(ingredientId);
+            }
+            replace(event.source(), event.ownerId(), ordinals);
+        }
+    }
+
+    /**
+     * Writes the counts changed since the last flush. Runs on the flusher thread and on shutdown.
+     */
+    public void flush() {
+        List<Object[]> changed = new ArrayList<>();
+        synchronized (this) {
+            if (counters == null) {
+                return;
+            }
+            counters.drainDirty((id, recipeCount, dietCount, cartCount) ->
+                    changed.add(new Object[]{id, recipeCount, dietCount, cartCount}));
+        }
+        if (changed.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (Object[] row : changed) {
+                    ingredientRepository.updateUsageCounts((UUID) row[0], (int) row[1], (int) row[2], (int) row[3]);
+                }
+            });
+            log.debug("Persisted usage counts of {} ingredients", changed.size());
+        } catch (RuntimeException e) {
+            log.warn("Persisting ingredient usage counts failed, will retry", e);
+            synchronized (this) {
+                changed.forEach(row -> counters.markDirty((UUID) row[0]));
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        ScheduledExecutorService current;
+        synchronized (this) {
+            current = flusher;
+        }
+        if (current != null) {
+            current.shutdown();
+            flush();
+        }
+    }
+
+    /**
+     * Stores the owner's new ingredient ordinals and applies the difference to the last ones seen.
+     */
+    private void replace(Source source, UUID ownerId, int[] ordinals) {
+        Arrays.sort(ordinals);
+        Map<UUID, int[]> owners = ownerIngredients.get(source);
+        int[] previous = ordinals.length == 0 ? owners.remove(ownerId) : owners.put(ownerId, ordinals);
+        counters.applyDifference(source, previous != null ? previous : new int[0], ordinals);
+    }
+
+    private IngredientUsageCounters getCounters() {
+        if (counters == null) {
+            load();
+        }
+        return counters;
+    }
+
+    /**
+     * Seeds the counters with the persisted counts, then applies the difference to the
+     * counts derived from the reference rows, so only ingredients whose persisted counts
+     * are stale get written by the next flush.
+     */
+    private void load() {
+        long start = System.nanoTime();
+        List<Object[]> persisted = ingredientRepository.findUsageCounts();
+        IngredientUsageCounters loaded = new IngredientUsageCounters(persisted.size());
+        for (Object[] row : persisted) {
+            int ordinal = loaded.ordinalOf((UUID) row[0]);
+            loaded.set(ordinal, Source.RECIPE, row[1] != null ? (Integer) row[1] : 0);
+            loaded.set(ordinal, Source.DIET, row[2] != null ? (Integer) row[2] : 0);
+            loaded.set(ordinal, Source.CART, row[3] != null ? (Integer) row[3] : 0);
+        }
+
+        Map<Source, List<Object[]>> references = new EnumMap<>(Source.class);
+        references.put(Source.RECIPE, recipeIngredientRepository.findIngredientReferences());
+        references.put(Source.DIET, dietMealItemRepository.findIngredientReferences());
+        references.put(Source.CART, cartItemRepository.findIngredientReferences());
+
+        for (Map.Entry<Source, List<Object[]>> entry : references.entrySet()) {
+            Source source = entry.getKey();
+            List<Object[]> rows = new ArrayList<>(entry.getValue());
+            rows.sort(Comparator.comparing(row -> (UUID) row[0]));
+
+            // Rows grouped by owner, so each owner's ordinals are one contiguous run
+            Map<UUID, int[]> owners = new HashMap<>();
+            int[] ordinals = new int[rows.size()];
+            for (int start = 0, end; start < rows.size(); start = end) {
+                UUID ownerId = (UUID) rows.get(start)[0];
+                for (end = start; end < rows.size() && ownerId.equals(rows.get(end)[0]); end++) {
+                    ordinals[end] = loaded.ordinalOf((UUID) rows.get(end)[1]);
+                }
+                int[] owned = Arrays.copyOfRange(ordinals, start, end);
+                Arrays.sort(owned);
+                owners.put(ownerId, owned);
+            }
+            ownerIngredients.put(source, owners);
+            loaded.reconcile(source, ordinals);
+        }
+
+        counters = loaded;
+        log.info("Loaded usage counts of {} ingredients in {} ms", loaded.size(), (System.nanoTime() - start) / 1_000_000);
+
+        if (flushIntervalSeconds > 0) {
+            flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "ingredient-usage-flusher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            flusher.scheduleWithFixedDelay(this::flush, flushIntervalSeconds, flushIntervalSeconds, TimeUnit.SECONDS);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.bervan.cookbook.service;
+
+import com.bervan.cookbook.text.PolishTextFolder;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * Keys used to recognize a recipe that was imported before: the source URL without
+ * scheme, "www.", fragment, tracking parameters and trailing slash, and a SHA-256
+ * fingerprint of the folded name and ingredient lines.
+ */
+public final class RecipeFingerprint {
+    private static final int MAX_URL_LENGTH = 300;
+
+    private RecipeFingerprint() {
+    }
+
+    /**
+     * @return normalized URL, or null for a blank or unparseable one
+     */
+    public static String normalizeSourceUrl(String sourceUrl) {
+        if (sourceUrl == null || sourceUrl.isBlank()) {
+            return null;
+        }
+
+        URI uri;
+        try {
+            uri = new URI(sourceUrl.trim());
+        } catch (URISyntaxException e) {
+            return null;
+        }
+        if (uri.getHost() == null) {
+            return null;
+        }
+
+        String host = uri.getHost().toLowerCase();
+        if (host.startsWith("www.")) {
+            host = host.substring(4);
+        }
+        String path = uri.getRawPath() != null ? uri.getRawPath() : "";
+        while (path.endsWith("/")) {
+            path = path.substring(0, path.length() - 1);
+        }
+
+        StringJoiner query = new StringJoiner("&", "?", "").setEmptyValue("");
+        if (uri.getRawQuery() != null) {
+            for (String parameter : uri.getRawQuery().split("&")) {
+                String name = parameter.split("=", 2)[0].toLowerCase();
+                if (parameter.isEmpty() || name.startsWith("utm_") || name.equals("fbclid") || name.equals("gclid")) {
+                    continue;
+                }
+                query.add(parameter);
+            }
+        }
+
+        String normalized = host + path + query;
+        return normalized.length() <= MAX_URL_LENGTH ? normalized : "sha256:" + sha256(normalized);
+    }
+
+    public static String contentFingerprint(String name, List<String> ingredientLines) {
+        StringBuilder content = new StringBuilder(name != null ? collapse(name) : "");
+        if (ingredientLines != null) {
+            for (String line : ingredientLines) {
+                content.append('\n').append(line != null ? collapse(line) : "");
+            }
+        }
+        return sha256(content.toString());
+    }
+
+    private static String collapse(String text) {
+        return String.join(" ", PolishTextFolder.fold(text).split("\\s+"));
+    }
+
+    private static String sha256(String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
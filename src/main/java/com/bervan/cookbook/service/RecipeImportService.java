@@ -1,52 +1,400 @@
 package com.bervan.cookbook.service;
 
 import com.bervan.cookbook.model.*;
+import com.bervan.cookbook.scraper.HtmlPageDecoder;
 import com.bervan.cookbook.scraper.RecipeScraperStrategy;
+import com.bervan.cookbook.scraper.ScraperRegistry;
 import org.jsoup.Jsoup;
 import org.jsoup.safety.Safelist;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 
 @Service
 public class RecipeImportService {
-    private final List<RecipeScraperStrategy> scraperStrategies;
+    private static final Logger log = LoggerFactory.getLogger(RecipeImportService.class);
+    private static final int STAGE_QUEUE_CAPACITY = 64;
+
+    private final ScraperRegistry scraperRegistry;
     private final IngredientNormalizationEngine normalizationEngine;
     private final UnitConversionEngine unitConversionEngine;
     private final RecipeService recipeService;
     private final IngredientService ingredientService;
+    private final TransactionTemplate transactionTemplate;
+    private final int importBatchSize;
+    private final int scraperThreads;
 
-    public RecipeImportService(List<RecipeScraperStrategy> scraperStrategies,
+    public RecipeImportService(ScraperRegistry scraperRegistry,
                                IngredientNormalizationEngine normalizationEngine,
                                UnitConversionEngine unitConversionEngine,
                                RecipeService recipeService,
-                               IngredientService ingredientService) {
-        this.scraperStrategies = scraperStrategies != null ? scraperStrategies : Collections.emptyList();
+                               IngredientService ingredientService,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${cook-book.import.batch-size:50}") int importBatchSize,
+                               @Value("${cook-book.import.scraper-threads:0}") int scraperThreads) {
+        this.scraperRegistry = scraperRegistry;
         this.normalizationEngine = normalizationEngine;
         this.unitConversionEngine = unitConversionEngine;
         this.recipeService = recipeService;
         this.ingredientService = ingredientService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.importBatchSize = importBatchSize;
+        this.scraperThreads = scraperThreads > 0 ? scraperThreads : Runtime.getRuntime().availableProcessors();
     }
 
+    /**
+     * @return {@link ScraperRegistry#AUTO_DETECT} followed by the registered scrapers
+     */
     public List<String> getAvailableScraperNames() {
-        return scraperStrategies.stream()
-                .map(RecipeScraperStrategy::getName)
-                .toList();
+        List<String> names = new ArrayList<>();
+        names.add(ScraperRegistry.AUTO_DETECT);
+        names.addAll(scraperRegistry.getNames());
+        return names;
     }
 
     public RecipeScraperStrategy findStrategyByName(String name) {
-        return scraperStrategies.stream()
-                .filter(s -> s.getName().equals(name))
-                .findFirst()
+        return scraperRegistry.find(name)
                 .orElseThrow(() -> new IllegalArgumentException("No scraper found with name: " + name));
     }
 
+    public List<ScraperRegistry.ScraperStats> getScraperStats() {
+        return scraperRegistry.getStats();
+    }
+
     public ScrapedRecipeData scrapePreview(String scraperName, String html) {
         RecipeScraperStrategy strategy = findStrategyByName(scraperName);
         return strategy.scrape(html);
     }
 
-    public Recipe importFromScraped(ScrapedRecipeData data) {
+    /**
+     * @return the created or updated recipe, or the existing one with {@link ImportOutcome#SKIPPED}
+     * when it is a duplicate and {@code duplicatePolicy} is {@link DuplicatePolicy#SKIP}
+     */
+    public ImportResult importFromScraped(ScrapedRecipeData data, DuplicatePolicy duplicatePolicy) {
+        ImportPlan plan = plan(data, duplicatePolicy, new ImportKeys());
+        if (plan.skip()) {
+            return new ImportResult(plan.target().recipe, ImportOutcome.SKIPPED);
+        }
+        List<String> texts = ingredientTexts(data);
+        IngredientImportSession session = newIngredientSession();
+        session.prepare(texts);
+        ImportResult result = execute(plan, session.ingredientsFor(texts));
+        session.commit();
+        return result;
+    }
+
+    /**
+     * Imports every saved recipe page (*.html, *.htm) from a directory tree or a ZIP archive.
+     * Pages flow through bounded queues: a reader thread loads them, a pool of scraper threads
+     * (cook-book.import.scraper-threads, one per core by default) parses them, and the calling
+     * thread is the single writer that normalizes and persists them in batches, one transaction
+     * per batch. Ingredient texts are resolved through one {@link IngredientImportSession} for
+     * the whole import. Persisting stays on the calling thread so it keeps the caller's security
+     * context and never shares a JPA session between threads.
+     * <p>
+     * A batch that fails to normalize or commit is retried recipe by recipe so a single bad
+     * page does not discard its neighbours. Failures are collected in the report instead of
+     * aborting.
+     * Recipes imported before (same normalized source URL or same content fingerprint) are
+     * skipped or updated in place according to {@code duplicatePolicy}; so are later copies of
+     * a page met earlier in the same import.
+     */
+    public BulkImportReport importAll(Path source, String scraperName, DuplicatePolicy duplicatePolicy) {
+        RecipeScraperStrategy strategy = findStrategyByName(scraperName);
+        BulkImportReport report = new BulkImportReport();
+        long start = System.nanoTime();
+
+        BlockingQueue<SourcePage> pages = new ArrayBlockingQueue<>(STAGE_QUEUE_CAPACITY);
+        BlockingQueue<ScrapedPage> scraped = new ArrayBlockingQueue<>(STAGE_QUEUE_CAPACITY);
+        ExecutorService stages = Executors.newFixedThreadPool(1 + scraperThreads);
+        IngredientImportSession ingredientSession = newIngredientSession();
+        ImportKeys importKeys = new ImportKeys();
+        try {
+            stages.submit(() -> readPages(source, pages, report));
+            AtomicInteger runningScrapers = new AtomicInteger(scraperThreads);
+            for (int i = 0; i < scraperThreads; i++) {
+                stages.submit(() -> scrapePages(strategy, pages, scraped, runningScrapers, report));
+            }
+
+            List<ScrapedPage> batch = new ArrayList<>(importBatchSize);
+            while (true) {
+                ScrapedPage page = scraped.take();
+                if (page == ScrapedPage.END) break;
+                batch.add(page);
+                if (batch.size() >= importBatchSize) {
+                    persistBatch(batch, ingredientSession, importKeys, duplicatePolicy, report);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                persistBatch(batch, ingredientSession, importKeys, duplicatePolicy, report);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            report.addFailure(source.toString(), "import", e);
+        } finally {
+            stages.shutdownNow();
+        }
+        log.debug("Bulk import resolved {} distinct ingredient texts", ingredientSession.size());
+
+        report.setDurationMillis((System.nanoTime() - start) / 1_000_000);
+        log.info("Bulk import from {} finished: {} pages, {} imported, {} updated, {} skipped, {} failed in {} ms",
+                source, report.getPageCount(), report.getImportedCount(), report.getUpdatedCount(),
+                report.getSkippedCount(), report.getFailures().size(), report.getDurationMillis());
+        for (ScraperRegistry.ScraperStats stats : scraperRegistry.getStats()) {
+            log.info("Scraper {}: {} pages, avg {} ms, max {} ms, {} pages/s per thread, error rate {}",
+                    stats.getName(), stats.getCallCount(), String.format("%.1f", stats.getAverageMillis()),
+                    String.format("%.1f", stats.getMaxMillis()), String.format("%.1f", stats.getPagesPerSecond()),
+                    String.format("%.3f", stats.getErrorRate()));
+        }
+        return report;
+    }
+
+    private void readPages(Path source, BlockingQueue<SourcePage> pages, BulkImportReport report) {
+        try {
+            if (Files.isDirectory(source)) {
+                List<Path> files;
+                try (Stream<Path> walk = Files.walk(source)) {
+                    files = walk.filter(Files::isRegularFile).filter(p -> isHtml(p.toString())).sorted().toList();
+                }
+                for (Path file : files) {
+                    try {
+                        pages.put(new SourcePage(source.relativize(file).toString(), Files.readAllBytes(file)));
+                    } catch (IOException e) {
+                        report.addFailure(file.toString(), "read", e);
+                    }
+                }
+            } else {
+                try (ZipFile zip = new ZipFile(source.toFile(), StandardCharsets.UTF_8)) {
+                    for (ZipEntry entry : Collections.list(zip.entries())) {
+                        if (entry.isDirectory() || !isHtml(entry.getName())) continue;
+                        try (InputStream in = zip.getInputStream(entry)) {
+                            pages.put(new SourcePage(entry.getName(), in.readAllBytes()));
+                        } catch (IOException e) {
+                            report.addFailure(entry.getName(), "read", e);
+                        }
+                    }
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            report.addFailure(source.toString(), "read", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            putQuietly(pages, SourcePage.END);
+        }
+    }
+
+    /**
+     * Scraper worker. The end marker is passed on to the next worker, and the last worker
+     * to finish closes the scraped queue.
+     */
+    private void scrapePages(RecipeScraperStrategy strategy, BlockingQueue<SourcePage> pages,
+                             BlockingQueue<ScrapedPage> scraped, AtomicInteger runningScrapers,
+                             BulkImportReport report) {
+        try {
+            while (true) {
+                SourcePage page = pages.take();
+                if (page == SourcePage.END) {
+                    pages.put(SourcePage.END);
+                    break;
+                }
+                report.pageRead();
+                try {
+                    scraped.put(new ScrapedPage(page.name(), strategy.scrape(HtmlPageDecoder.decode(page.content()))));
+                } catch (RuntimeException e) {
+                    report.addFailure(page.name(), "scrape", e);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (runningScrapers.decrementAndGet() == 0) {
+                putQuietly(scraped, ScrapedPage.END);
+            }
+        }
+    }
+
+    private void persistBatch(List<ScrapedPage> batch, IngredientImportSession ingredientSession,
+                              ImportKeys importKeys, DuplicatePolicy duplicatePolicy, BulkImportReport report) {
+        Set<String> texts = new HashSet<>();
+        for (ScrapedPage page : batch) {
+            texts.addAll(ingredientTexts(page.data()));
+        }
+
+        try {
+            ingredientSession.prepare(texts);
+            List<ImportOutcome> outcomes = transactionTemplate.execute(status ->
+                    persistPages(batch, ingredientSession, importKeys, duplicatePolicy));
+            ingredientSession.commit();
+            importKeys.commit();
+            outcomes.forEach(report::count);
+        } catch (RuntimeException batchFailure) {
+            ingredientSession.rollback();
+            importKeys.rollback();
+            for (ScrapedPage page : batch) {
+                try {
+                    ingredientSession.prepare(ingredientTexts(page.data()));
+                    List<ImportOutcome> outcomes = transactionTemplate.execute(status ->
+                            persistPages(List.of(page), ingredientSession, importKeys, duplicatePolicy));
+                    ingredientSession.commit();
+                    importKeys.commit();
+                    outcomes.forEach(report::count);
+                } catch (RuntimeException e) {
+                    ingredientSession.rollback();
+                    importKeys.rollback();
+                    report.addFailure(page.name(), "persist", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes pages in two phases inside the current transaction: duplicates are looked up
+     * first, then the ingredients the session could not resolve are created once for all
+     * recipes that will be written, then the recipes are saved. Grouping the inserts by
+     * entity type keeps the JDBC batches full.
+     */
+    private List<ImportOutcome> persistPages(List<ScrapedPage> pages, IngredientImportSession ingredientSession,
+                                             ImportKeys importKeys, DuplicatePolicy duplicatePolicy) {
+        List<ImportPlan> plans = new ArrayList<>(pages.size());
+        Set<String> texts = new HashSet<>();
+        for (ScrapedPage page : pages) {
+            ImportPlan plan = plan(page.data(), duplicatePolicy, importKeys);
+            plans.add(plan);
+            if (!plan.skip()) {
+                texts.addAll(ingredientTexts(page.data()));
+            }
+        }
+        Map<String, Ingredient> ingredients = ingredientSession.ingredientsFor(texts);
+
+        List<ImportOutcome> outcomes = new ArrayList<>(plans.size());
+        for (ImportPlan plan : plans) {
+            outcomes.add(plan.skip() ? ImportOutcome.SKIPPED : execute(plan, ingredients).outcome());
+        }
+        return outcomes;
+    }
+
+    /**
+     * Looks for the recipe among the pages planned earlier in this import first, so copies
+     * not written yet (same batch) are found too, then among the user's saved recipes.
+     */
+    private ImportPlan plan(ScrapedRecipeData data, DuplicatePolicy duplicatePolicy, ImportKeys importKeys) {
+        String normalizedSourceUrl = RecipeFingerprint.normalizeSourceUrl(data.getSourceUrl());
+        String contentFingerprint = RecipeFingerprint.contentFingerprint(data.getName(), ingredientLines(data));
+        ImportTarget target = importKeys.find(normalizedSourceUrl, contentFingerprint);
+        boolean duplicate = target != null;
+        if (target == null) {
+            Optional<Recipe> existing = recipeService.findImportDuplicate(normalizedSourceUrl, contentFingerprint);
+            duplicate = existing.isPresent();
+            target = new ImportTarget(existing.orElse(null));
+        }
+        importKeys.register(normalizedSourceUrl, contentFingerprint, target);
+        return new ImportPlan(data, normalizedSourceUrl, contentFingerprint, target,
+                duplicate && duplicatePolicy == DuplicatePolicy.SKIP);
+    }
+
+    /**
+     * @param ingredients ingredient text -> ingredient; texts missing here are resolved or created by name
+     */
+    private ImportResult execute(ImportPlan plan, Map<String, Ingredient> ingredients) {
+        Recipe recipe = buildRecipe(plan.data(), ingredients);
+        recipe.setNormalizedSourceUrl(plan.normalizedSourceUrl());
+        recipe.setContentFingerprint(plan.contentFingerprint());
+        ImportTarget target = plan.target();
+        if (target.recipe != null) {
+            // Keep the target instance: a copy managed by a transaction that rolls back must not leak out
+            copyImportedFields(recipe, target.recipe);
+            return new ImportResult(recipeService.save(target.recipe), ImportOutcome.UPDATED);
+        }
+        target.recipe = recipeService.save(recipe);
+        return new ImportResult(target.recipe, ImportOutcome.CREATED);
+    }
+
+    private IngredientImportSession newIngredientSession() {
+        return new IngredientImportSession(normalizationEngine, ingredientService);
+    }
+
+    /**
+     * Overwrites the scraped content of an existing recipe. Ratings and favorite flag are
+     * kept since they may have been changed locally after the first import.
+     */
+    private static void copyImportedFields(Recipe source, Recipe target) {
+        target.setName(source.getName());
+        target.setDescription(source.getDescription());
+        target.setInstruction(source.getInstruction());
+        target.setPrepTime(source.getPrepTime());
+        target.setCookTime(source.getCookTime());
+        target.setServings(source.getServings());
+        target.setTotalCalories(source.getTotalCalories());
+        target.setTags(source.getTags());
+        target.setRequiredEquipment(source.getRequiredEquipment());
+        target.setSourceUrl(source.getSourceUrl());
+        target.setMainImageUrl(source.getMainImageUrl());
+        target.setNormalizedSourceUrl(source.getNormalizedSourceUrl());
+        target.setContentFingerprint(source.getContentFingerprint());
+
+        // Same collection instance: it is mapped with orphanRemoval
+        target.getRecipeIngredients().clear();
+        for (RecipeIngredient ri : source.getRecipeIngredients()) {
+            ri.setRecipe(target);
+            target.getRecipeIngredients().add(ri);
+        }
+    }
+
+    private static boolean isHtml(String name) {
+        String lower = name.toLowerCase();
+        return lower.endsWith(".html") || lower.endsWith(".htm");
+    }
+
+    private static <T> void putQuietly(BlockingQueue<T> queue, T item) {
+        try {
+            queue.put(item);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static List<String> ingredientLines(ScrapedRecipeData data) {
+        if (data.getIngredientLines() == null) {
+            return Collections.emptyList();
+        }
+        List<String> lines = new ArrayList<>(data.getIngredientLines().size());
+        for (ScrapedRecipeData.ScrapedIngredientLine line : data.getIngredientLines()) {
+            lines.add(line.getOriginalText());
+        }
+        return lines;
+    }
+
+    private static List<String> ingredientTexts(ScrapedRecipeData data) {
+        if (data.getIngredientLines() == null) {
+            return Collections.emptyList();
+        }
+        List<String> texts = new ArrayList<>();
+        for (ScrapedRecipeData.ScrapedIngredientLine line : data.getIngredientLines()) {
+            if (line.getIngredientText() != null && !line.getIngredientText().isBlank()) {
+                texts.add(line.getIngredientText());
+            }
+        }
+        return texts;
+    }
+
+    private Recipe buildRecipe(ScrapedRecipeData data, Map<String, Ingredient> normalized) {
         Recipe recipe = new Recipe();
         recipe.setId(UUID.randomUUID());
         recipe.setName(data.getName());
@@ -94,8 +442,10 @@ public class RecipeImportService {
                 // Normalize ingredient
                 String ingredientText = line.getIngredientText();
                 if (ingredientText != null && !ingredientText.isBlank()) {
-                    Ingredient ingredient = normalizationEngine.normalize(ingredientText)
-                            .orElseGet(() -> ingredientService.findOrCreateByName(ingredientText));
+                    Ingredient ingredient = normalized.get(ingredientText);
+                    if (ingredient == null) {
+                        ingredient = ingredientService.findOrCreateByName(ingredientText);
+                    }
                     ri.setIngredient(ingredient);
                     recipeIngredients.add(ri);
                 }
@@ -103,6 +453,137 @@ public class RecipeImportService {
         }
 
         recipe.setRecipeIngredients(recipeIngredients);
-        return recipeService.save(recipe);
+        return recipe;
+    }
+
+    public enum DuplicatePolicy {
+        SKIP, UPSERT
+    }
+
+    public enum ImportOutcome {
+        CREATED, UPDATED, SKIPPED
+    }
+
+    private record ImportPlan(ScrapedRecipeData data, String normalizedSourceUrl, String contentFingerprint,
+                              ImportTarget target, boolean skip) {
+    }
+
+    /**
+     * The recipe a page is written to: a saved duplicate, the recipe created for an earlier
+     * copy of the page in this import, or null until a new recipe is created.
+     */
+    private static final class ImportTarget {
+        private Recipe recipe;
+
+        private ImportTarget(Recipe recipe) {
+            this.recipe = recipe;
+        }
+    }
+
+    /**
+     * Normalized source URLs and content fingerprints planned so far in one import. Keys
+     * planned inside a transaction stay pending until {@link #commit()}, so a batch that
+     * rolls back does not leave targets pointing at recipes that were never written.
+     */
+    private static final class ImportKeys {
+        private final Map<String, ImportTarget> committed = new HashMap<>();
+        private final Map<String, ImportTarget> pending = new HashMap<>();
+
+        ImportTarget find(String normalizedSourceUrl, String contentFingerprint) {
+            ImportTarget target = normalizedSourceUrl != null ? get("url:" + normalizedSourceUrl) : null;
+            return target != null ? target : get("fp:" + contentFingerprint);
+        }
+
+        void register(String normalizedSourceUrl, String contentFingerprint, ImportTarget target) {
+            if (normalizedSourceUrl != null) {
+                pending.putIfAbsent("url:" + normalizedSourceUrl, target);
+            }
+            pending.putIfAbsent("fp:" + contentFingerprint, target);
+        }
+
+        void commit() {
+            pending.forEach(committed::putIfAbsent);
+            pending.clear();
+        }
+
+        void rollback() {
+            pending.clear();
+        }
+
+        private ImportTarget get(String key) {
+            ImportTarget target = pending.get(key);
+            return target != null ? target : committed.get(key);
+        }
+    }
+
+    public record ImportResult(Recipe recipe, ImportOutcome outcome) {
+    }
+
+    // Raw bytes; the charset is detected on the scraper threads
+    private record SourcePage(String name, byte[] content) {
+        static final SourcePage END = new SourcePage(null, null);
+    }
+
+    private record ScrapedPage(String name, ScrapedRecipeData data) {
+        static final ScrapedPage END = new ScrapedPage(null, null);
+    }
+
+    public static class BulkImportReport {
+        private final List<ImportFailure> failures = Collections.synchronizedList(new ArrayList<>());
+        private volatile int pageCount;
+        private volatile int importedCount;
+        private volatile int updatedCount;
+        private volatile int skippedCount;
+        private long durationMillis;
+
+        private synchronized void pageRead() {
+            pageCount++;
+        }
+
+        private synchronized void count(ImportOutcome outcome) {
+            switch (outcome) {
+                case CREATED -> importedCount++;
+                case UPDATED -> updatedCount++;
+                case SKIPPED -> skippedCount++;
+            }
+        }
+
+        private void addFailure(String source, String stage, Exception e) {
+            log.warn("Bulk import of {} failed at {}: {}", source, stage, e.getMessage());
+            failures.add(new ImportFailure(source, stage, e.getMessage()));
+        }
+
+        private void setDurationMillis(long durationMillis) {
+            this.durationMillis = durationMillis;
+        }
+
+        public int getPageCount() {
+            return pageCount;
+        }
+
+        public int getImportedCount() {
+            return importedCount;
+        }
+
+        public int getUpdatedCount() {
+            return updatedCount;
+        }
+
+        public int getSkippedCount() {
+            return skippedCount;
+        }
+
+        public List<ImportFailure> getFailures() {
+            synchronized (failures) {
+                return new ArrayList<>(failures);
+            }
+        }
+
+        public long getDurationMillis() {
+            return durationMillis;
+        }
+    }
+
+    public record ImportFailure(String source, String stage, String message) {
     }
 }
@@ -1,93 +1,225 @@
 package com.bervan.cookbook.service;
 
-import com.bervan.common.search.SearchRequest;
+import com.bervan.common.service.AuthService;
+import com.bervan.cookbook.event.RecipeChangedEvent;
+import com.bervan.cookbook.index.IngredientBitmap;
+import com.bervan.cookbook.index.RecipeMatchIndex;
+import com.bervan.cookbook.index.RecipeScoreHeap;
 import com.bervan.cookbook.model.Ingredient;
 import com.bervan.cookbook.model.Recipe;
-import com.bervan.cookbook.model.RecipeIngredient;
-import org.springframework.data.domain.Pageable;
+import com.bervan.cookbook.repository.RecipeRepository;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 @Service
 public class RecipeMatchingEngine {
-    private final RecipeService recipeService;
+    private static final int MIN_SHARD_SIZE = 4096;
+
+    private final RecipeRepository recipeRepository;
     private final IngredientNormalizationEngine normalizationEngine;
+    private final int parallelThreshold;
+    private final ForkJoinPool scoringPool = ForkJoinPool.commonPool();
+    private volatile RecipeMatchIndex index;
 
-    public RecipeMatchingEngine(RecipeService recipeService,
-                                IngredientNormalizationEngine normalizationEngine) {
-        this.recipeService = recipeService;
+    public RecipeMatchingEngine(RecipeRepository recipeRepository,
+                                IngredientNormalizationEngine normalizationEngine,
+                                @Value("${cook-book.matching.parallel-threshold:50000}") int parallelThreshold) {
+        this.recipeRepository = recipeRepository;
         this.normalizationEngine = normalizationEngine;
+        this.parallelThreshold = parallelThreshold;
     }
 
     public List<RecipeMatchResult> findMatchingRecipes(List<String> fridgeIngredients,
                                                         double minCoveragePercent) {
-        // 1. Normalize fridge ingredients
-        Set<UUID> fridgeIngredientIds = new HashSet<>();
-        Map<UUID, Ingredient> fridgeMap = new HashMap<>();
-        for (String text : fridgeIngredients) {
-            normalizationEngine.normalize(text).ifPresent(ingredient -> {
-                fridgeIngredientIds.add(ingredient.getId());
-                fridgeMap.put(ingredient.getId(), ingredient);
-            });
+        return findMatchingRecipes(fridgeIngredients, minCoveragePercent, 0, Integer.MAX_VALUE).getResults();
+    }
+
+    /**
+     * @param offset number of best results to skip, not negative
+     * @param limit  maximum number of results to return, not negative
+     */
+    public RecipeMatchPage findMatchingRecipes(List<String> fridgeIngredients, double minCoveragePercent,
+                                               int offset, int limit) {
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("offset and limit must not be negative: " + offset + ", " + limit);
         }
+        RecipeMatchIndex.Snapshot index = getIndex().snapshot();
+
+        // 1. Normalize fridge ingredients and resolve them to index ordinals
+        int[] fridgeOrdinals = normalizationEngine.normalizeAll(fridgeIngredients).values().stream()
+                .map(Ingredient::getId)
+                .distinct()
+                .mapToInt(index::getIngredientOrdinal)
+                .filter(ordinal -> ordinal >= 0)
+                .sorted()
+                .toArray();
 
-        if (fridgeIngredientIds.isEmpty()) {
-            return Collections.emptyList();
+        if (fridgeOrdinals.length == 0) {
+            return new RecipeMatchPage(Collections.emptyList(), 0);
         }
 
-        // 2. Load all recipes
-        Set<Recipe> allRecipes = recipeService.load(new SearchRequest(), Pageable.ofSize(10000));
-        List<RecipeMatchResult> results = new ArrayList<>();
+        // 2. Score only recipes sharing at least one fridge ingredient and keep the best offset + limit
+        IngredientBitmap fridge = IngredientBitmap.of(fridgeOrdinals);
+        int[] candidates = index.collectCandidates(fridgeOrdinals);
+        ScoringTask task = new ScoringTask(index, candidates, fridge, minCoveragePercent,
+                AuthService.getLoggedUserId(), (int) Math.min((long) offset + limit, candidates.length),
+                Math.max(MIN_SHARD_SIZE, candidates.length / (scoringPool.getParallelism() * 4)),
+                0, candidates.length);
+        ShardResult scored = candidates.length >= parallelThreshold ? scoringPool.invoke(task) : task.compute();
 
-        for (Recipe recipe : allRecipes) {
-            if (Boolean.TRUE.equals(recipe.isDeleted())) continue;
+        // 3. Ranked best first: matchCount DESC -> coveragePercent DESC -> averageRating DESC.
+        // Matched/missing lists are only built for the requested window.
+        int[] ranked = scored.heap().drainSorted();
+        List<RecipeMatchResult> results = new ArrayList<>(Math.max(0, ranked.length - offset));
+        for (int i = offset; i < ranked.length; i++) {
+            results.add(toResult(index, ranked[i], fridge));
+        }
 
-            Set<RecipeIngredient> recipeIngredients = recipe.getRecipeIngredients();
-            if (recipeIngredients == null || recipeIngredients.isEmpty()) continue;
+        return new RecipeMatchPage(results, scored.totalCount());
+    }
 
-            // Filter to required (non-optional) ingredients
-            List<RecipeIngredient> required = recipeIngredients.stream()
-                    .filter(ri -> !Boolean.TRUE.equals(ri.getOptional()))
-                    .filter(ri -> !Boolean.TRUE.equals(ri.isDeleted()))
-                    .toList();
+    private RecipeMatchResult toResult(RecipeMatchIndex.Snapshot index, int recipeOrdinal, IngredientBitmap fridge) {
+        List<Ingredient> matched = new ArrayList<>();
+        List<Ingredient> missing = new ArrayList<>();
+        for (int ingredientOrdinal : index.getRequiredSet(recipeOrdinal).toArray()) {
+            if (fridge.contains(ingredientOrdinal)) {
+                matched.add(index.getIngredient(ingredientOrdinal));
+            } else {
+                missing.add(index.getIngredient(ingredientOrdinal));
+            }
+        }
 
-            if (required.isEmpty()) continue;
+        double coveragePercent = (matched.size() * 100.0) / index.getRequiredCount(recipeOrdinal);
+        RecipeMatchResult result = new RecipeMatchResult();
+        result.setRecipe(index.getRecipe(recipeOrdinal));
+        result.setMatchCount(matched.size());
+        result.setCoveragePercent(Math.round(coveragePercent * 10.0) / 10.0);
+        result.setMatchedIngredients(matched);
+        result.setMissingIngredients(missing);
+        return result;
+    }
 
-            List<Ingredient> matched = new ArrayList<>();
-            List<Ingredient> missing = new ArrayList<>();
+    /**
+     * Applies a single recipe change to the resident index after the saving transaction
+     * commits. If the index has not been built yet the next search loads it from scratch.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onRecipeChanged(RecipeChangedEvent event) {
+        if (index == null) {
+            return;
+        }
+        if (event.isDeleted()) {
+            index.remove(event.recipeId());
+        } else {
+            index.put(event.recipe());
+        }
+    }
 
-            for (RecipeIngredient ri : required) {
-                if (fridgeIngredientIds.contains(ri.getIngredient().getId())) {
-                    matched.add(ri.getIngredient());
-                } else {
-                    missing.add(ri.getIngredient());
+    private RecipeMatchIndex getIndex() {
+        RecipeMatchIndex current = index;
+        if (current == null) {
+            synchronized (this) {
+                current = index;
+                if (current == null) {
+                    current = RecipeMatchIndex.build(recipeRepository.findByDeletedFalse());
+                    index = current;
                 }
             }
+        }
+        return current;
+    }
 
-            int matchCount = matched.size();
-            double coveragePercent = (matchCount * 100.0) / required.size();
-
-            if (coveragePercent >= minCoveragePercent && matchCount > 0) {
-                RecipeMatchResult result = new RecipeMatchResult();
-                result.setRecipe(recipe);
-                result.setMatchCount(matchCount);
-                result.setCoveragePercent(Math.round(coveragePercent * 10.0) / 10.0);
-                result.setMatchedIngredients(matched);
-                result.setMissingIngredients(missing);
-                results.add(result);
+    private record ShardResult(RecipeScoreHeap heap, int totalCount) {
+    }
+
+    /**
+     * Scores a range of candidate ordinals. Ranges above the shard size are split
+     * and scored in parallel; every shard keeps its own bounded heap and the heaps
+     * are merged on join.
+     */
+    private static class ScoringTask extends RecursiveTask<ShardResult> {
+        private final RecipeMatchIndex.Snapshot index;
+        private final int[] candidates;
+        private final IngredientBitmap fridge;
+        private final double minCoveragePercent;
+        private final UUID userId;
+        private final int capacity;
+        private final int shardSize;
+        private final int from;
+        private final int to;
+
+        private ScoringTask(RecipeMatchIndex.Snapshot index, int[] candidates, IngredientBitmap fridge,
+                            double minCoveragePercent, UUID userId, int capacity, int shardSize,
+                            int from, int to) {
+            this.index = index;
+            this.candidates = candidates;
+            this.fridge = fridge;
+            this.minCoveragePercent = minCoveragePercent;
+            this.userId = userId;
+            this.capacity = capacity;
+            this.shardSize = shardSize;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected ShardResult compute() {
+            if (to - from > shardSize && getPool() != null) {
+                int mid = (from + to) >>> 1;
+                ScoringTask left = new ScoringTask(index, candidates, fridge, minCoveragePercent,
+                        userId, capacity, shardSize, from, mid);
+                ScoringTask right = new ScoringTask(index, candidates, fridge, minCoveragePercent,
+                        userId, capacity, shardSize, mid, to);
+                left.fork();
+                ShardResult rightResult = right.compute();
+                ShardResult leftResult = left.join();
+                RecipeScoreHeap merged = new RecipeScoreHeap(
+                        Math.min(capacity, leftResult.heap().size() + rightResult.heap().size()));
+                merged.addAll(leftResult.heap());
+                merged.addAll(rightResult.heap());
+                return new ShardResult(merged, leftResult.totalCount() + rightResult.totalCount());
+            }
+
+            RecipeScoreHeap heap = new RecipeScoreHeap(Math.min(capacity, to - from));
+            int totalCount = 0;
+            for (int i = from; i < to; i++) {
+                int recipeOrdinal = candidates[i];
+                int matchCount = index.getMatchCount(recipeOrdinal, fridge);
+                double coveragePercent = (matchCount * 100.0) / index.getRequiredCount(recipeOrdinal);
+                if (coveragePercent < minCoveragePercent) continue;
+
+                Recipe recipe = index.getRecipe(recipeOrdinal);
+                if (recipe == null || !index.isOwnedBy(recipeOrdinal, userId)) continue;
+
+                totalCount++;
+                heap.offer(recipeOrdinal, matchCount, coveragePercent,
+                        recipe.getAverageRating() != null ? recipe.getAverageRating() : 0.0);
             }
+            return new ShardResult(heap, totalCount);
         }
+    }
 
-        // 3. Sort: matchCount DESC -> coveragePercent DESC -> averageRating DESC
-        results.sort(Comparator
-                .comparingInt(RecipeMatchResult::getMatchCount).reversed()
-                .thenComparingDouble(RecipeMatchResult::getCoveragePercent).reversed()
-                .thenComparing(r -> r.getRecipe().getAverageRating() != null
-                        ? r.getRecipe().getAverageRating() : 0.0, Comparator.reverseOrder()));
+    public static class RecipeMatchPage {
+        private final List<RecipeMatchResult> results;
+        private final int totalCount;
+
+        public RecipeMatchPage(List<RecipeMatchResult> results, int totalCount) {
+            this.results = results;
+            this.totalCount = totalCount;
+        }
 
-        return results;
+        public List<RecipeMatchResult> getResults() {
+            return results;
+        }
+
+        public int getTotalCount() {
+            return totalCount;
+        }
     }
 
     public static class RecipeMatchResult {
@@ -1,12 +1,15 @@
 package com.bervan.cookbook.service;
 
 import com.bervan.common.search.SearchService;
+import com.bervan.common.service.AuthService;
 import com.bervan.common.service.BaseService;
+import com.bervan.cookbook.event.RecipeChangedEvent;
 import com.bervan.cookbook.model.Recipe;
 import com.bervan.cookbook.model.RecipeRating;
 import com.bervan.cookbook.repository.RecipeHistoryRepository;
 import com.bervan.cookbook.repository.RecipeRatingRepository;
 import com.bervan.cookbook.repository.RecipeRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -18,14 +21,17 @@ public class RecipeService extends BaseService<UUID, Recipe> {
     private final RecipeRepository recipeRepository;
     private final RecipeHistoryRepository historyRepository;
     private final RecipeRatingRepository ratingRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     public RecipeService(RecipeRepository repository, SearchService searchService,
                          RecipeHistoryRepository historyRepository,
-                         RecipeRatingRepository ratingRepository) {
+                         RecipeRatingRepository ratingRepository,
+                         ApplicationEventPublisher eventPublisher) {
         super(repository, searchService);
         this.recipeRepository = repository;
         this.historyRepository = historyRepository;
         this.ratingRepository = ratingRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     public List<String> loadAllTags() {
@@ -39,7 +45,38 @@ public class RecipeService extends BaseService<UUID, Recipe> {
         if (prep > 0 || cook > 0) {
             recipe.setTotalTime(prep + cook);
         }
-        return super.save(recipe);
+        Recipe saved = super.save(recipe);
+        eventPublisher.publishEvent(RecipeChangedEvent.saved(saved));
+        return saved;
+    }
+
+    @Override
+    public void delete(Recipe recipe) {
+        super.delete(recipe);
+        eventPublisher.publishEvent(RecipeChangedEvent.deleted(recipe.getId()));
+    }
+
+    /**
+     * Finds a recipe of the logged user imported from the same source, or with the same
+     * content when the source URL is unknown or was not recorded.
+     */
+    public Optional<Recipe> findImportDuplicate(String normalizedSourceUrl, String contentFingerprint) {
+        UUID userId = AuthService.getLoggedUserId();
+        if (normalizedSourceUrl != null) {
+            Optional<Recipe> bySource = firstOwnedBy(
+                    recipeRepository.findByNormalizedSourceUrlAndDeletedFalse(normalizedSourceUrl), userId);
+            if (bySource.isPresent()) {
+                return bySource;
+            }
+        }
+        return firstOwnedBy(recipeRepository.findByContentFingerprintAndDeletedFalse(contentFingerprint), userId);
+    }
+
+    private static Optional<Recipe> firstOwnedBy(List<Recipe> recipes, UUID userId) {
+        return recipes.stream()
+                .filter(recipe -> userId != null && recipe.getOwners().stream()
+                        .anyMatch(owner -> userId.equals(owner.getId())))
+                .findFirst();
     }
 
     public void addRating(UUID recipeId, int rating, String comment) {
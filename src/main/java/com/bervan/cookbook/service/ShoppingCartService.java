@@ -2,9 +2,12 @@ package com.bervan.cookbook.service;
 
 import com.bervan.common.search.SearchService;
 import com.bervan.common.service.BaseService;
+import com.bervan.cookbook.event.IngredientUsageChangedEvent;
+import com.bervan.cookbook.index.IngredientUsageCounters;
 import com.bervan.cookbook.model.*;
 import com.bervan.cookbook.repository.ShoppingCartItemRepository;
 import com.bervan.cookbook.repository.ShoppingCartRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
@@ -14,13 +17,29 @@ import java.util.stream.Collectors;
 public class ShoppingCartService extends BaseService<UUID, ShoppingCart> {
     private final ShoppingCartItemRepository itemRepository;
     private final UnitConversionEngine conversionEngine;
+    private final ApplicationEventPublisher eventPublisher;
 
     public ShoppingCartService(ShoppingCartRepository repository, SearchService searchService,
                                ShoppingCartItemRepository itemRepository,
-                               UnitConversionEngine conversionEngine) {
+                               UnitConversionEngine conversionEngine,
+                               ApplicationEventPublisher eventPublisher) {
         super(repository, searchService);
         this.itemRepository = itemRepository;
         this.conversionEngine = conversionEngine;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    public ShoppingCart save(ShoppingCart cart) {
+        ShoppingCart saved = super.save(cart);
+        eventPublisher.publishEvent(IngredientUsageChangedEvent.of(saved));
+        return saved;
+    }
+
+    @Override
+    public void delete(ShoppingCart cart) {
+        super.delete(cart);
+        eventPublisher.publishEvent(IngredientUsageChangedEvent.deleted(IngredientUsageCounters.Source.CART, cart.getId()));
     }
 
     public void addFromRecipe(UUID cartId, Recipe recipe, double servingMultiplier) {
@@ -0,0 +1,30 @@
+package com.bervan.cookbook.text;
+
+/**
+ * Light suffix-stripping stemmer for folded Polish words. Strips the longest
+ * matching noun/adjective declension ending, e.g. "marchewki", "marchewke",
+ * "marchewka" -> "marchewk", and "pomidorami" -> "pomidor". Consonant
+ * alternations ("mace" for "maka") are not handled.
+ */
+public final class PolishStemmer {
+    private static final int MIN_STEM_LENGTH = 3;
+
+    // Folded endings, longest first
+    private static final String[] SUFFIXES = {
+            "ach", "ami", "ego", "emu", "ich", "iej", "iem", "imi", "owi", "ych", "ymi",
+            "ej", "em", "im", "om", "ow", "ym",
+            "a", "e", "i", "o", "u", "y"
+    };
+
+    private PolishStemmer() {
+    }
+
+    public static String stem(String word) {
+        for (String suffix : SUFFIXES) {
+            if (word.length() - suffix.length() >= MIN_STEM_LENGTH && word.endsWith(suffix)) {
+                return word.substring(0, word.length() - suffix.length());
+            }
+        }
+        return word;
+    }
+}
@@ -0,0 +1,59 @@
+package com.bervan.cookbook.text;
+
+import java.text.Normalizer;
+
+/**
+ * Single-pass lower-casing and diacritic stripping, e.g. "Żółć" -> "zolc".
+ * Latin-1 and Latin Extended-A (which covers ą ć ę ł ń ó ś ź ż) are folded
+ * through a lookup table, combining marks are dropped and any other
+ * character is only lower-cased.
+ */
+public final class PolishTextFolder {
+    private static final int TABLE_SIZE = 0x180;
+    private static final char COMBINING_MARKS_START = '\u0300';
+    private static final char COMBINING_MARKS_END = '\u036F';
+    private static final char[] FOLD = new char[TABLE_SIZE];
+
+    static {
+        for (char c = 0; c < TABLE_SIZE; c++) {
+            // NFD puts the base letter first, followed by its combining marks
+            FOLD[c] = Normalizer.normalize(String.valueOf(Character.toLowerCase(c)), Normalizer.Form.NFD).charAt(0);
+        }
+        // ł (U+0142) and Ł (U+0141) have no canonical decomposition
+        FOLD['\u0142'] = 'l';
+        FOLD['\u0141'] = 'l';
+    }
+
+    private PolishTextFolder() {
+    }
+
+    public static String fold(String text) {
+        int start = 0;
+        int end = text.length();
+        while (start < end && text.charAt(start) <= ' ') start++;
+        while (end > start && text.charAt(end - 1) <= ' ') end--;
+
+        char[] folded = new char[end - start];
+        int length = 0;
+        for (int i = start; i < end; i++) {
+            char c = foldChar(text.charAt(i));
+            if (c != 0) {
+                folded[length++] = c;
+            }
+        }
+        return new String(folded, 0, length);
+    }
+
+    /**
+     * @return folded character, or 0 when the character is dropped: a combining mark, or NUL itself
+     */
+    public static char foldChar(char c) {
+        if (c < TABLE_SIZE) {
+            return FOLD[c];
+        }
+        if (c >= COMBINING_MARKS_START && c <= COMBINING_MARKS_END) {
+            return 0;
+        }
+        return Character.toLowerCase(c);
+    }
+}
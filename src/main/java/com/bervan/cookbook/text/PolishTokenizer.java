@@ -0,0 +1,91 @@
+package com.bervan.cookbook.text;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Folds and splits text in one pass. Tokens are separated by whitespace and
+ * commas; tokens shorter than 2 characters and noise words are skipped, the
+ * rest are reduced to their stems with {@link PolishStemmer}.
+ */
+public final class PolishTokenizer {
+    // Folded forms, matching what the tokenizer produces
+    private static final String[] NOISE_WORDS = {
+            "do", "na", "z", "ze", "od", "w", "i", "lub", "albo", "swiezy", "swieza", "swieze",
+            "duzy", "duza", "duze", "maly", "mala", "male", "sredni", "srednia", "srednie"
+    };
+
+    private static final char[][] NOISE_TABLE;
+    private static final int NOISE_SEED;
+    private static final int NOISE_MASK;
+
+    static {
+        // Perfect hash: smallest seed for which no two noise words share a slot
+        int size = Integer.highestOneBit(NOISE_WORDS.length * 2 - 1) << 1;
+        char[][] table = null;
+        int seed = 0;
+        while (table == null) {
+            table = new char[size][];
+            for (String word : NOISE_WORDS) {
+                int slot = hash(word.toCharArray(), word.length(), seed) & (size - 1);
+                if (table[slot] != null) {
+                    table = null;
+                    seed++;
+                    break;
+                }
+                table[slot] = word.toCharArray();
+            }
+        }
+        NOISE_TABLE = table;
+        NOISE_SEED = seed;
+        NOISE_MASK = size - 1;
+    }
+
+    private PolishTokenizer() {
+    }
+
+    public static Set<String> tokenize(String text) {
+        Set<String> tokens = new HashSet<>();
+        char[] token = new char[text.length()];
+        int length = 0;
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            if (isSeparator(c)) {
+                if (length >= 2 && !isNoiseWord(token, length)) {
+                    tokens.add(PolishStemmer.stem(new String(token, 0, length)));
+                }
+                length = 0;
+                continue;
+            }
+
+            char folded = PolishTextFolder.foldChar(c);
+            if (folded != 0) {
+                token[length++] = folded;
+            }
+        }
+        return tokens;
+    }
+
+    public static boolean isNoiseWord(char[] chars, int length) {
+        char[] candidate = NOISE_TABLE[hash(chars, length, NOISE_SEED) & NOISE_MASK];
+        if (candidate == null || candidate.length != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (candidate[i] != chars[i]) return false;
+        }
+        return true;
+    }
+
+    private static boolean isSeparator(char c) {
+        return c == ' ' || c == ',' || c == '\t' || c == '\n' || c == '\r' || c == '\f' || c == '\u000B';
+    }
+
+    private static int hash(char[] chars, int length, int seed) {
+        int h = seed * 0x9E3779B9;
+        for (int i = 0; i < length; i++) {
+            h = h * 31 + chars[i];
+        }
+        return h ^ (h >>> 16);
+    }
+}
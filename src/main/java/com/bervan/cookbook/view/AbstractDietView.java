@@ -2,6 +2,7 @@ package com.bervan.cookbook.view;
 
 import com.bervan.common.component.BervanComboBox;
 import com.bervan.common.view.AbstractPageView;
+import com.bervan.cookbook.index.IngredientUsageCounters;
 import com.bervan.cookbook.model.DietDay;
 import com.bervan.cookbook.model.DietMeal;
 import com.bervan.cookbook.model.DietMealItem;
@@ -20,6 +21,7 @@ import com.vaadin.flow.component.html.H3;
 import com.vaadin.flow.component.html.H4;
 import com.vaadin.flow.component.html.Span;
 import com.vaadin.flow.component.icon.VaadinIcon;
+import com.vaadin.flow.component.orderedlayout.FlexComponent;
 import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
 import com.vaadin.flow.component.orderedlayout.VerticalLayout;
 import com.vaadin.flow.component.radiobutton.RadioButtonGroup;
@@ -42,6 +44,7 @@ public abstract class AbstractDietView extends AbstractPageView {
 
     public static final String ROUTE_NAME = "/cook-book/diet";
 
+    private static final int MOST_USED_FOODS = 8;
     private static final Map<String, String> ACTIVITY_LEVELS = new LinkedHashMap<>();
     static {
         ACTIVITY_LEVELS.put("SEDENTARY",   "Sedentary (desk job, no exercise)");
@@ -528,9 +531,9 @@ public abstract class AbstractDietView extends AbstractPageView {
         ingredientCombo.setItemLabelGenerator(Ingredient::getName);
         ingredientCombo.setItems(query -> {
             String filter = query.getFilter().orElse("");
-            List<Ingredient> results = ingredientService.searchByText(filter, query.getOffset(), query.getLimit());
+            List<Ingredient> results = ingredientService.searchForAutocomplete(filter, query.getOffset(), query.getLimit());
             return results.stream();
-        });
+        }, query -> ingredientService.countForAutocomplete(query.getFilter().orElse("")));
 
         NumberField amountField = new NumberField("Amount (g)");
         amountField.setMin(0.1);
@@ -544,6 +547,22 @@ public abstract class AbstractDietView extends AbstractPageView {
         form.add(ingredientCombo, amountField);
         form.setResponsiveSteps(new FormLayout.ResponsiveStep("0", 1));
 
+        List<Ingredient> mostUsed = ingredientService.mostUsed(IngredientUsageCounters.Source.DIET, MOST_USED_FOODS);
+        if (!mostUsed.isEmpty()) {
+            HorizontalLayout mostUsedRow = new HorizontalLayout();
+            mostUsedRow.setAlignItems(FlexComponent.Alignment.CENTER);
+            mostUsedRow.getStyle().set("flex-wrap", "wrap").set("gap", "4px");
+            Span label = new Span("Most used foods:");
+            label.getStyle().set("font-size", "var(--bervan-font-size-sm)").set("color", "var(--bervan-text-secondary)");
+            mostUsedRow.add(label);
+            for (Ingredient ingredient : mostUsed) {
+                Button pick = new Button(ingredient.getName(), e -> ingredientCombo.setValue(ingredient));
+                pick.addThemeVariants(ButtonVariant.LUMO_SMALL, ButtonVariant.LUMO_TERTIARY);
+                mostUsedRow.add(pick);
+            }
+            div.add(mostUsedRow);
+        }
+
         Button save = new Button("Add", e -> {
             Ingredient selected = ingredientCombo.getValue();
             Double amount = amountField.getValue();
@@ -363,8 +363,8 @@ public abstract class AbstractRecipeDetailView extends AbstractPageView implemen
             String filter = query.getFilter().orElse("");
             int offset = query.getOffset();
             int limit = query.getLimit();
-            return ingredientService.searchByText(filter.isBlank() ? "a" : filter, offset, limit).stream();
-        });
+            return ingredientService.searchForAutocomplete(filter, offset, limit).stream();
+        }, query -> ingredientService.countForAutocomplete(query.getFilter().orElse("")));
         ingredientCombo.setAllowCustomValue(true);
         ingredientCombo.addCustomValueSetListener(e -> {
             Ingredient newIng = ingredientService.findOrCreateByName(e.getDetail());
@@ -479,8 +479,8 @@ public abstract class AbstractRecipeDetailView extends AbstractPageView implemen
             String filter = query.getFilter().orElse("");
             int offset = query.getOffset();
             int limit = query.getLimit();
-            return ingredientService.searchByText(filter.isBlank() ? "a" : filter, offset, limit).stream();
-        });
+            return ingredientService.searchForAutocomplete(filter, offset, limit).stream();
+        }, query -> ingredientService.countForAutocomplete(query.getFilter().orElse("")));
 
         BervanButton selectBtn = new BervanButton("Select", e -> {
             Ingredient selected = ingredientCombo.getValue();
@@ -5,6 +5,10 @@ import com.bervan.common.config.BervanViewConfig;
 import com.bervan.common.view.AbstractBervanTableView;
 import com.bervan.cookbook.model.Recipe;
 import com.bervan.cookbook.service.RecipeImportService;
+import com.bervan.cookbook.service.RecipeImportService.BulkImportReport;
+import com.bervan.cookbook.service.RecipeImportService.DuplicatePolicy;
+import com.bervan.cookbook.service.RecipeImportService.ImportFailure;
+import com.bervan.cookbook.service.RecipeImportService.ImportResult;
 import com.bervan.cookbook.service.RecipeService;
 import com.vaadin.flow.component.button.Button;
 import com.vaadin.flow.component.dependency.CssImport;
@@ -21,8 +25,11 @@ import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
 import com.vaadin.flow.component.orderedlayout.VerticalLayout;
 import com.vaadin.flow.component.combobox.ComboBox;
 import com.vaadin.flow.component.textfield.TextArea;
+import com.vaadin.flow.component.upload.Upload;
+import com.vaadin.flow.component.upload.receivers.FileBuffer;
 import com.vaadin.flow.data.renderer.ComponentRenderer;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
@@ -101,6 +108,12 @@ public abstract class AbstractRecipeListView extends AbstractBervanTableView<UUI
         importBtn.addClassName("accent");
         importBtn.getElement().setAttribute("title", "Import from HTML");
         topTableActions.addComponentAtIndex(1, importBtn);
+
+        Button bulkImportBtn = new BervanButton(new Icon(VaadinIcon.FILE_ZIP), e -> openBulkImportDialog());
+        bulkImportBtn.addClassName("bervan-icon-btn");
+        bulkImportBtn.addClassName("accent");
+        bulkImportBtn.getElement().setAttribute("title", "Import saved pages from ZIP");
+        topTableActions.addComponentAtIndex(2, bulkImportBtn);
     }
 
     private void openImportHTMLDialog() {
@@ -108,24 +121,9 @@ public abstract class AbstractRecipeListView extends AbstractBervanTableView<UUI
         dialog.setWidth("700px");
         dialog.setCloseOnOutsideClick(false);
 
-        H3 title = new H3("Import Recipe from HTML");
-        title.getStyle().set("margin", "0");
-
-        Button closeButton = new BervanButton(new Icon(VaadinIcon.CLOSE), e -> dialog.close());
-        closeButton.addClassName("bervan-icon-btn");
-
-        HorizontalLayout header = new HorizontalLayout(title, closeButton);
-        header.setWidthFull();
-        header.setJustifyContentMode(FlexComponent.JustifyContentMode.BETWEEN);
-        header.setAlignItems(FlexComponent.Alignment.CENTER);
-
-        ComboBox<String> scraperCombo = new ComboBox<>("Scraper");
-        scraperCombo.setWidthFull();
-        List<String> scraperNames = recipeImportService.getAvailableScraperNames();
-        scraperCombo.setItems(scraperNames);
-        if (!scraperNames.isEmpty()) {
-            scraperCombo.setValue(scraperNames.get(0));
-        }
+        HorizontalLayout header = createDialogHeader("Import Recipe from HTML", dialog);
+        ComboBox<String> scraperCombo = createScraperCombo();
+        ComboBox<DuplicatePolicy> policyCombo = createDuplicatePolicyCombo();
 
         TextArea htmlField = new TextArea("HTML");
         htmlField.setWidthFull();
@@ -135,8 +133,8 @@ public abstract class AbstractRecipeListView extends AbstractBervanTableView<UUI
         Button importButton = new BervanButton("Import", e -> {
             String scraperName = scraperCombo.getValue();
             String html = htmlField.getValue();
-            if (scraperName == null || scraperName.isBlank()) {
-                showErrorNotification("Select a scraper");
+            if (scraperName == null || scraperName.isBlank() || policyCombo.getValue() == null) {
+                showErrorNotification("Select a scraper and what to do with an already imported recipe");
                 return;
             }
             if (html == null || html.isBlank()) {
@@ -144,9 +142,14 @@ public abstract class AbstractRecipeListView extends AbstractBervanTableView<UUI
                 return;
             }
             try {
-                Recipe imported = recipeImportService.importFromScraped(
-                        recipeImportService.scrapePreview(scraperName, html));
-                showSuccessNotification("Recipe imported: " + imported.getName());
+                ImportResult result = recipeImportService.importFromScraped(
+                        recipeImportService.scrapePreview(scraperName, html), policyCombo.getValue());
+                String recipeName = result.recipe().getName();
+                switch (result.outcome()) {
+                    case CREATED -> showSuccessNotification("Recipe imported: " + recipeName);
+                    case UPDATED -> showSuccessNotification("Recipe updated: " + recipeName);
+                    case SKIPPED -> showSuccessNotification("Recipe already imported, nothing changed: " + recipeName);
+                }
                 dialog.close();
                 refreshData();
             } catch (Exception ex) {
@@ -156,7 +159,7 @@ public abstract class AbstractRecipeListView extends AbstractBervanTableView<UUI
         importButton.addClassName("bervan-icon-btn");
         importButton.addClassName("primary");
 
-        VerticalLayout content = new VerticalLayout(header, scraperCombo, htmlField, importButton);
+        VerticalLayout content = new VerticalLayout(header, scraperCombo, policyCombo, htmlField, importButton);
         content.setSpacing(true);
         content.setPadding(true);
         content.setAlignItems(FlexComponent.Alignment.STRETCH);
@@ -164,4 +167,106 @@ public abstract class AbstractRecipeListView extends AbstractBervanTableView<UUI
         dialog.add(content);
         dialog.open();
     }
+
+    /**
+     * Imports a ZIP of saved recipe pages through {@link RecipeImportService#importAll}. The
+     * upload is buffered to a temporary file, which is removed once the import finishes.
+     */
+    private void openBulkImportDialog() {
+        Dialog dialog = new Dialog();
+        dialog.setWidth("700px");
+        dialog.setCloseOnOutsideClick(false);
+
+        HorizontalLayout header = createDialogHeader("Import Saved Recipe Pages", dialog);
+        ComboBox<String> scraperCombo = createScraperCombo();
+        ComboBox<DuplicatePolicy> policyCombo = createDuplicatePolicyCombo();
+
+        VerticalLayout reportLayout = new VerticalLayout();
+        reportLayout.setPadding(false);
+        reportLayout.setSpacing(false);
+
+        FileBuffer buffer = new FileBuffer();
+        Upload upload = new Upload(buffer);
+        upload.setWidthFull();
+        upload.setMaxFiles(1);
+        upload.setAcceptedFileTypes("application/zip", ".zip");
+        upload.setDropLabel(new Span("Drop a ZIP of saved .html pages here"));
+        upload.addSucceededListener(e -> {
+            File file = buffer.getFileData().getFile();
+            try {
+                if (scraperCombo.getValue() == null || policyCombo.getValue() == null) {
+                    showErrorNotification("Select a scraper and what to do with already imported recipes");
+                    return;
+                }
+                BulkImportReport report = recipeImportService.importAll(
+                        file.toPath(), scraperCombo.getValue(), policyCombo.getValue());
+                showBulkImportReport(reportLayout, report);
+                refreshData();
+            } catch (Exception ex) {
+                showErrorNotification("Import failed: " + ex.getMessage());
+            } finally {
+                file.delete();
+                upload.clearFileList();
+            }
+        });
+
+        VerticalLayout content = new VerticalLayout(header, scraperCombo, policyCombo, upload, reportLayout);
+        content.setSpacing(true);
+        content.setPadding(true);
+        content.setAlignItems(FlexComponent.Alignment.STRETCH);
+
+        dialog.add(content);
+        dialog.open();
+    }
+
+    private void showBulkImportReport(VerticalLayout reportLayout, BulkImportReport report) {
+        reportLayout.removeAll();
+        reportLayout.add(new Span(String.format("%d pages: %d imported, %d updated, %d skipped, %d failed in %d ms",
+                report.getPageCount(), report.getImportedCount(), report.getUpdatedCount(),
+                report.getSkippedCount(), report.getFailures().size(), report.getDurationMillis())));
+        for (ImportFailure failure : report.getFailures()) {
+            Span line = new Span(failure.source() + " (" + failure.stage() + "): " + failure.message());
+            line.getStyle().set("color", "var(--lumo-error-text-color)");
+            reportLayout.add(line);
+        }
+        if (report.getFailures().isEmpty()) {
+            showSuccessNotification("Imported " + report.getImportedCount() + " recipes");
+        } else {
+            showErrorNotification(report.getFailures().size() + " pages could not be imported");
+        }
+    }
+
+    private HorizontalLayout createDialogHeader(String text, Dialog dialog) {
+        H3 title = new H3(text);
+        title.getStyle().set("margin", "0");
+
+        Button closeButton = new BervanButton(new Icon(VaadinIcon.CLOSE), e -> dialog.close());
+        closeButton.addClassName("bervan-icon-btn");
+
+        HorizontalLayout header = new HorizontalLayout(title, closeButton);
+        header.setWidthFull();
+        header.setJustifyContentMode(FlexComponent.JustifyContentMode.BETWEEN);
+        header.setAlignItems(FlexComponent.Alignment.CENTER);
+        return header;
+    }
+
+    private ComboBox<String> createScraperCombo() {
+        ComboBox<String> scraperCombo = new ComboBox<>("Scraper");
+        scraperCombo.setWidthFull();
+        List<String> scraperNames = recipeImportService.getAvailableScraperNames();
+        scraperCombo.setItems(scraperNames);
+        if (!scraperNames.isEmpty()) {
+            scraperCombo.setValue(scraperNames.get(0));
+        }
+        return scraperCombo;
+    }
+
+    private ComboBox<DuplicatePolicy> createDuplicatePolicyCombo() {
+        ComboBox<DuplicatePolicy> policyCombo = new ComboBox<>("Already imported recipes");
+        policyCombo.setWidthFull();
+        policyCombo.setItems(DuplicatePolicy.values());
+        policyCombo.setItemLabelGenerator(policy -> policy == DuplicatePolicy.SKIP ? "Skip" : "Update with new content");
+        policyCombo.setValue(DuplicatePolicy.SKIP);
+        return policyCombo;
+    }
 }
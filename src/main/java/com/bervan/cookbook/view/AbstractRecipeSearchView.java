@@ -5,6 +5,7 @@ import com.bervan.common.component.BervanButton;
 import com.bervan.common.view.AbstractPageView;
 import com.bervan.cookbook.model.Ingredient;
 import com.bervan.cookbook.service.RecipeMatchingEngine;
+import com.bervan.cookbook.service.RecipeMatchingEngine.RecipeMatchPage;
 import com.bervan.cookbook.service.RecipeMatchingEngine.RecipeMatchResult;
 import com.vaadin.flow.component.Component;
 import com.vaadin.flow.component.Key;
@@ -25,6 +26,7 @@ import java.util.List;
 @CssImport("./bervan-cookbook.css")
 public abstract class AbstractRecipeSearchView extends AbstractPageView {
     public static final String ROUTE_NAME = "/cook-book/search";
+    private static final int PAGE_SIZE = 50;
 
     private final RecipeMatchingEngine matchingEngine;
     private final CookBookPageLayout pageLayout = new CookBookPageLayout(ROUTE_NAME);
@@ -129,8 +131,9 @@ public abstract class AbstractRecipeSearchView extends AbstractPageView {
     private void performSearch(int minCoveragePercent) {
         resultsContainer.removeAll();
 
-        List<RecipeMatchResult> results = matchingEngine.findMatchingRecipes(
-                fridgeIngredients, minCoveragePercent);
+        RecipeMatchPage page = matchingEngine.findMatchingRecipes(
+                fridgeIngredients, minCoveragePercent, 0, PAGE_SIZE);
+        List<RecipeMatchResult> results = new ArrayList<>(page.getResults());
 
         if (results.isEmpty()) {
             resultsContainer.add(new Span("No matching recipes found."));
@@ -142,7 +145,7 @@ public abstract class AbstractRecipeSearchView extends AbstractPageView {
         resultsSection.addClassName("pm-section");
         resultsSection.getStyle().set("width", "100%");
 
-        H3 title = new H3("Results (" + results.size() + " recipes found)");
+        H3 title = new H3("Results (" + page.getTotalCount() + " recipes found)");
         resultsSection.add(title);
 
         Grid<RecipeMatchResult> grid = new Grid<>();
@@ -178,6 +181,19 @@ public abstract class AbstractRecipeSearchView extends AbstractPageView {
         })).setHeader("Ingredients").setFlexGrow(3);
 
         resultsSection.add(grid);
+
+        if (results.size() < page.getTotalCount()) {
+            BervanButton showMoreBtn = new BervanButton("Show more");
+            showMoreBtn.addClickListener(e -> {
+                RecipeMatchPage next = matchingEngine.findMatchingRecipes(
+                        fridgeIngredients, minCoveragePercent, results.size(), PAGE_SIZE);
+                results.addAll(next.getResults());
+                grid.setItems(results);
+                showMoreBtn.setVisible(!next.getResults().isEmpty() && results.size() < next.getTotalCount());
+            });
+            resultsSection.add(showMoreBtn);
+        }
+
         resultsContainer.add(resultsSection);
     }
 }
@@ -0,0 +1,157 @@
+package com.bervan.cookbook.index;
+
+import com.bervan.cookbook.model.Ingredient;
+import com.bervan.cookbook.model.IngredientAlias;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.function.ToLongFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IngredientSuggestIndexTest {
+    private final Map<UUID, Long> usage = new HashMap<>();
+    private final ToLongFunction<UUID> usageCounts = id -> usage.getOrDefault(id, 0L);
+
+    @Test
+    void changedIngredientIsFoundByNewNameOnly() {
+        Ingredient flour = ingredient("Mąka pszenna");
+        Ingredient butter = ingredient("Masło");
+        IngredientSuggestIndex index = IngredientSuggestIndex.build(List.of(flour, butter), usageCounts);
+
+        Ingredient renamed = ingredient(butter.getId(), "Margaryna");
+        IngredientSuggestIndex changed = index.withChanges(Map.of(butter.getId(), renamed), usageCounts);
+
+        assertEquals(List.of(renamed, flour), changed.suggest("ma", 10));
+        assertEquals(0, changed.count("masl"));
+        assertEquals(List.of(renamed), changed.suggest("marg", 10));
+        assertEquals(2, changed.size());
+        assertEquals(1, index.count("masl"));
+    }
+
+    @Test
+    void deletedIngredientIsDropped() {
+        Ingredient flour = ingredient("Mąka pszenna");
+        Ingredient butter = ingredient("Masło");
+        Ingredient milk = ingredient("Mleko");
+        IngredientSuggestIndex index = IngredientSuggestIndex.build(List.of(flour, butter, milk), usageCounts);
+
+        Ingredient deletedMilk = ingredient(milk.getId(), "Mleko");
+        deletedMilk.setDeleted(true);
+        Map<UUID, Ingredient> changes = new HashMap<>();
+        changes.put(butter.getId(), null);
+        changes.put(milk.getId(), deletedMilk);
+        IngredientSuggestIndex changed = index.withChanges(changes, usageCounts);
+
+        assertEquals(List.of(flour), changed.suggest("m", 10));
+        assertEquals(1, changed.count(""));
+        assertEquals(1, changed.size());
+    }
+
+    @Test
+    void addedAliasIsIndexed() {
+        Ingredient onion = ingredient("Cebula");
+        IngredientSuggestIndex index = IngredientSuggestIndex.build(List.of(onion), usageCounts);
+        assertEquals(0, index.count("szalot"));
+
+        Ingredient withAlias = ingredient(onion.getId(), "Cebula", "Szalotka", "Dymka");
+        IngredientSuggestIndex changed = index.withChanges(Map.of(onion.getId(), withAlias), usageCounts);
+
+        assertEquals(List.of(withAlias), changed.suggest("szalot", 10));
+        assertEquals(List.of(withAlias), changed.suggest("dym", 10));
+        assertEquals(1, changed.count("ceb"));
+    }
+
+    @Test
+    void unknownIdIsAdded() {
+        Ingredient flour = ingredient("Mąka pszenna");
+        IngredientSuggestIndex index = IngredientSuggestIndex.build(List.of(flour), usageCounts);
+
+        Ingredient rye = ingredient("Mąka żytnia");
+        usage.put(rye.getId(), 5L);
+        IngredientSuggestIndex changed = index.withChanges(Map.of(rye.getId(), rye), usageCounts);
+
+        assertEquals(List.of(rye, flour), changed.suggest("maka", 10));
+        assertEquals(List.of(rye), changed.suggest("zyt", 10));
+        assertEquals(2, changed.size());
+    }
+
+    @Test
+    void changesMatchFreshBuild() {
+        Random random = new Random(42);
+        String[] words = {"mąka", "masło", "mleko", "cebula", "czosnek", "pieprz", "sól", "cukier", "śmietana",
+                "jajko", "ziemniak", "marchew", "pietruszka", "seler", "por", "kurczak", "wołowina", "ryż"};
+        Map<UUID, Ingredient> live = new LinkedHashMap<>();
+        for (int i = 0; i < 60; i++) {
+            Ingredient ingredient = ingredient(name(words, random, i), alias(words, random));
+            live.put(ingredient.getId(), ingredient);
+            usage.put(ingredient.getId(), (long) random.nextInt(4));
+        }
+        IngredientSuggestIndex index = IngredientSuggestIndex.build(live.values(), usageCounts);
+
+        Map<UUID, Ingredient> changes = new HashMap<>();
+        List<UUID> ids = new ArrayList<>(live.keySet());
+        for (int i = 0; i < 15; i++) {
+            UUID id = ids.get(random.nextInt(ids.size()));
+            if (random.nextBoolean()) {
+                changes.put(id, null);
+                live.remove(id);
+            } else {
+                Ingredient changed = ingredient(id, name(words, random, 100 + i), alias(words, random));
+                changes.put(id, changed);
+                live.put(id, changed);
+            }
+        }
+        for (int i = 0; i < 5; i++) {
+            Ingredient added = ingredient(name(words, random, 200 + i), alias(words, random));
+            changes.put(added.getId(), added);
+            live.put(added.getId(), added);
+        }
+        for (UUID id : live.keySet()) {
+            usage.put(id, (long) random.nextInt(4));
+        }
+
+        IngredientSuggestIndex changed = index.withChanges(changes, usageCounts);
+        IngredientSuggestIndex rebuilt = IngredientSuggestIndex.build(live.values(), usageCounts);
+
+        assertEquals(rebuilt.size(), changed.size());
+        Set<String> prefixes = new TreeSet<>(List.of("", "m", "ma", "mak", "c", "cz", "s", "p", "po", "zi", "x", "1"));
+        for (String word : words) {
+            for (int length = 1; length <= word.length(); length++) {
+                prefixes.add(word.substring(0, length));
+            }
+        }
+        for (String prefix : prefixes) {
+            assertEquals(rebuilt.count(prefix), changed.count(prefix), prefix);
+            assertEquals(rebuilt.suggest(prefix, 100), changed.suggest(prefix, 100), prefix);
+            assertEquals(rebuilt.suggest(prefix, 3), changed.suggest(prefix, 3), prefix);
+        }
+    }
+
+    private static String name(String[] words, Random random, int n) {
+        return words[random.nextInt(words.length)] + " " + words[random.nextInt(words.length)] + " " + n;
+    }
+
+    private static String alias(String[] words, Random random) {
+        return random.nextInt(3) == 0 ? words[random.nextInt(words.length)] + " " + random.nextInt(1000) : null;
+    }
+
+    private static Ingredient ingredient(String name, String... aliases) {
+        return ingredient(UUID.randomUUID(), name, aliases);
+    }
+
+    private static Ingredient ingredient(UUID id, String name, String... aliases) {
+        Ingredient ingredient = new Ingredient();
+        ingredient.setId(id);
+        ingredient.setName(name);
+        for (String aliasName : aliases) {
+            if (aliasName == null) continue;
+            IngredientAlias alias = new IngredientAlias();
+            alias.setId(UUID.randomUUID());
+            alias.setAliasName(aliasName);
+            alias.setIngredient(ingredient);
+            ingredient.getAliases().add(alias);
+        }
+        return ingredient;
+    }
+}
@@ -0,0 +1,128 @@
+package com.bervan.cookbook.index;
+
+import com.bervan.cookbook.index.IngredientUsageCounters.Source;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IngredientUsageCountersTest {
+    private final UUID flour = UUID.randomUUID();
+    private final UUID egg = UUID.randomUUID();
+    private final UUID milk = UUID.randomUUID();
+    private IngredientUsageCounters counters;
+    private int flourOrdinal;
+    private int eggOrdinal;
+    private int milkOrdinal;
+
+    @BeforeEach
+    void setUp() {
+        counters = new IngredientUsageCounters(4);
+        flourOrdinal = counters.ordinalOf(flour);
+        eggOrdinal = counters.ordinalOf(egg);
+        milkOrdinal = counters.ordinalOf(milk);
+    }
+
+    @Test
+    void applyDifferenceCountsAddedAndRemovedIngredients() {
+        counters.applyDifference(Source.RECIPE, new int[0], sorted(flourOrdinal, eggOrdinal));
+        counters.applyDifference(Source.RECIPE, sorted(flourOrdinal, eggOrdinal), sorted(eggOrdinal, milkOrdinal));
+
+        assertEquals(0, counters.get(flour, Source.RECIPE));
+        assertEquals(1, counters.get(egg, Source.RECIPE));
+        assertEquals(1, counters.get(milk, Source.RECIPE));
+        assertEquals(0, counters.get(egg, Source.DIET));
+    }
+
+    @Test
+    void applyDifferenceCountsEveryReferenceOfRepeatedIngredient() {
+        counters.applyDifference(Source.DIET, new int[0], sorted(eggOrdinal, eggOrdinal, flourOrdinal));
+        assertEquals(2, counters.get(egg, Source.DIET));
+
+        counters.applyDifference(Source.DIET, sorted(eggOrdinal, eggOrdinal, flourOrdinal),
+                sorted(eggOrdinal, flourOrdinal, flourOrdinal, flourOrdinal));
+        assertEquals(1, counters.get(egg, Source.DIET));
+        assertEquals(3, counters.get(flour, Source.DIET));
+    }
+
+    @Test
+    void applyDifferenceToEmptyRemovesAllReferences() {
+        int[] owned = sorted(flourOrdinal, eggOrdinal, eggOrdinal, milkOrdinal);
+        counters.applyDifference(Source.CART, new int[0], owned);
+        drainDirty();
+
+        counters.applyDifference(Source.CART, owned, new int[0]);
+
+        assertEquals(0, counters.total(flour));
+        assertEquals(0, counters.total(egg));
+        assertEquals(0, counters.total(milk));
+        assertEquals(Set.of(flour, egg, milk), drainDirty().keySet());
+    }
+
+    @Test
+    void applyDifferenceWithSameIngredientsChangesNothing() {
+        int[] owned = sorted(flourOrdinal, eggOrdinal, eggOrdinal);
+        counters.applyDifference(Source.RECIPE, new int[0], owned);
+        drainDirty();
+        long version = counters.version();
+
+        counters.applyDifference(Source.RECIPE, owned, owned.clone());
+
+        assertEquals(version, counters.version());
+        assertTrue(drainDirty().isEmpty());
+    }
+
+    @Test
+    void reconcileOverwritesStaleCountsAndMarksOnlyChangedDirty() {
+        // Persisted counts as loaded: flour stale, egg right, milk referenced nowhere any more
+        counters.set(flourOrdinal, Source.RECIPE, 5);
+        counters.set(eggOrdinal, Source.RECIPE, 2);
+        counters.set(milkOrdinal, Source.RECIPE, 1);
+        counters.set(milkOrdinal, Source.DIET, 4);
+
+        counters.reconcile(Source.RECIPE, new int[]{eggOrdinal, flourOrdinal, eggOrdinal});
+
+        assertEquals(1, counters.get(flour, Source.RECIPE));
+        assertEquals(2, counters.get(egg, Source.RECIPE));
+        assertEquals(0, counters.get(milk, Source.RECIPE));
+        assertEquals(4, counters.get(milk, Source.DIET));
+        Map<UUID, int[]> dirty = drainDirty();
+        assertEquals(Set.of(flour, milk), dirty.keySet());
+        assertArrayEquals(new int[]{0, 4, 0}, dirty.get(milk));
+    }
+
+    @Test
+    void reconcileCountsIngredientsFirstSeenInReferences() {
+        UUID butter = UUID.randomUUID();
+        int butterOrdinal = counters.ordinalOf(butter);
+
+        counters.reconcile(Source.CART, new int[]{butterOrdinal, butterOrdinal});
+
+        assertEquals(2, counters.get(butter, Source.CART));
+        assertEquals(Set.of(butter), drainDirty().keySet());
+        assertEquals(List.of(butter), counters.mostUsed(Source.CART, 5));
+    }
+
+    @Test
+    void mostUsedRanksBySourceOrTotal() {
+        counters.applyDifference(Source.DIET, new int[0], sorted(eggOrdinal, eggOrdinal, milkOrdinal));
+        counters.applyDifference(Source.RECIPE, new int[0], sorted(milkOrdinal, milkOrdinal, flourOrdinal));
+
+        assertEquals(List.of(egg, milk), counters.mostUsed(Source.DIET, 5));
+        assertEquals(List.of(milk), counters.mostUsed(null, 1));
+    }
+
+    private static int[] sorted(int... ordinals) {
+        int[] copy = ordinals.clone();
+        Arrays.sort(copy);
+        return copy;
+    }
+
+    private Map<UUID, int[]> drainDirty() {
+        Map<UUID, int[]> dirty = new HashMap<>();
+        counters.drainDirty((id, recipe, diet, cart) -> dirty.put(id, new int[]{recipe, diet, cart}));
+        return dirty;
+    }
+}
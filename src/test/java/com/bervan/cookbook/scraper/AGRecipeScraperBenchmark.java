@@ -0,0 +1,76 @@
+package com.bervan.cookbook.scraper;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * {@link AGRecipeScraper} against the implementation it replaced. Scrapes the bundled page by
+ * default; pass {@code -Dag.pages.dir=<dir>} to scrape every saved {@code .html} page in a directory
+ * instead. Run with {@code mvn test-compile} and then
+ * {@code java -cp target/test-classes:<test classpath> com.bervan.cookbook.scraper.AGRecipeScraperBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AGRecipeScraperBenchmark {
+    private final AGRecipeScraper scraper = new AGRecipeScraper();
+    private final LegacyAGRecipeScraper legacy = new LegacyAGRecipeScraper();
+    private List<String> pages;
+
+    @Setup
+    public void loadPages() throws IOException {
+        String dir = System.getProperty("ag.pages.dir");
+        if (dir == null) {
+            pages = List.of(AGRecipeScraperTest.page("ag-recipe.html"));
+            return;
+        }
+        pages = new ArrayList<>();
+        try (Stream<Path> files = Files.list(Path.of(dir))) {
+            for (Path file : files.filter(f -> f.toString().endsWith(".html")).sorted().toList()) {
+                pages.add(Files.readString(file, StandardCharsets.UTF_8));
+            }
+        }
+        if (pages.isEmpty()) {
+            throw new IllegalStateException("No .html pages in " + dir);
+        }
+    }
+
+    @Benchmark
+    public void scrapeSliced(Blackhole blackhole) {
+        for (String html : pages) {
+            blackhole.consume(scraper.scrape(html));
+        }
+    }
+
+    @Benchmark
+    public void scrapeLegacy(Blackhole blackhole) {
+        for (String html : pages) {
+            blackhole.consume(legacy.scrape(html));
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        ChainedOptionsBuilder options = new OptionsBuilder().include(AGRecipeScraperBenchmark.class.getSimpleName());
+        String dir = System.getProperty("ag.pages.dir");
+        if (dir != null) {
+            options.jvmArgsAppend("-Dag.pages.dir=" + dir);
+        }
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,70 @@
+package com.bervan.cookbook.scraper;
+
+import com.bervan.cookbook.model.ScrapedRecipeData;
+import com.bervan.cookbook.model.ScrapedRecipeData.ScrapedIngredientLine;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AGRecipeScraperTest {
+    private final AGRecipeScraper scraper = new AGRecipeScraper();
+    private final LegacyAGRecipeScraper legacy = new LegacyAGRecipeScraper();
+
+    @Test
+    void scrapesSavedPageLikeLegacyImplementation() throws IOException {
+        String html = page("ag-recipe.html");
+
+        assertEquals(legacy.scrape(html), scraper.scrape(html));
+    }
+
+    @Test
+    void scrapesPageWithoutRecipeScopeLikeLegacyImplementation() throws IOException {
+        String html = page("ag-recipe.html").replace("itemscope itemtype=\"https://schema.org/Recipe\"", "");
+
+        assertEquals(legacy.scrape(html), scraper.scrape(html));
+    }
+
+    @Test
+    void scrapesFieldsOfSavedPage() throws IOException {
+        ScrapedRecipeData data = scraper.scrape(page("ag-recipe.html"));
+
+        assertEquals("Placki ziemniaczane", data.getName());
+        assertEquals("Chrupiące placki ziemniaczane z cebulą, podawane ze śmietaną lub gulaszem.", data.getDescription());
+        assertEquals(30, data.getPrepTime());
+        assertEquals(65, data.getCookTime());
+        assertEquals(4, data.getServings());
+        assertEquals(1860, data.getTotalCalories());
+        assertEquals(4.8, data.getAverageRating());
+        assertEquals(1254, data.getRatingCount());
+        assertEquals("https://aniagotuje.pl/img/placki-ziemniaczane.jpg", data.getMainImageUrl());
+        assertEquals("placki, ziemniaki, obiad bez mięsa, Dania główne, wegetariańska, bezglutenowa, "
+                + "kuchnia polska, Obiady, Dania bez mięsa", data.getTags());
+
+        List<ScrapedIngredientLine> lines = data.getIngredientLines();
+        assertEquals(9, lines.size());
+        assertEquals(new ScrapedIngredientLine("1 kg ziemniaków", 1.0, "kg", "ziemniaków", null), lines.get(0));
+        assertEquals(new ScrapedIngredientLine("1/2 łyżeczki soli", 0.5, "łyżeczki", "soli", null), lines.get(4));
+        assertEquals(new ScrapedIngredientLine("2-3 ząbki czosnku", 2.0, "ząbki", "czosnku", null), lines.get(5));
+        assertEquals(new ScrapedIngredientLine("szczypta pieprzu", null, null, "szczypta pieprzu", null), lines.get(7));
+
+        String instruction = data.getInstructionHtml();
+        assertTrue(instruction.contains("Odlej nadmiar wody."));
+        assertTrue(instruction.contains("placki-krok-3.jpg"));
+        assertFalse(instruction.contains("adsbygoogle"));
+        assertFalse(instruction.contains("Reklama"));
+        assertFalse(instruction.contains("Udostępnij"));
+        assertFalse(instruction.contains("onclick"));
+    }
+
+    static String page(String name) throws IOException {
+        try (InputStream in = AGRecipeScraperTest.class.getResourceAsStream("/scraper/" + name)) {
+            assertNotNull(in, name);
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
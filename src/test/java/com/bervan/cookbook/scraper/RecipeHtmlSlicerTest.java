@@ -0,0 +1,106 @@
+package com.bervan.cookbook.scraper;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecipeHtmlSlicerTest {
+    private static final String RECIPE = "<div itemscope itemtype=\"https://schema.org/Recipe\"><h1 itemprop=\"name\">Bigos</h1></div>";
+
+    @Test
+    void slicesRecipeElement() {
+        String html = "<html><body><nav><div>menu</div></nav>" + RECIPE + "<div>comments</div></body></html>";
+
+        assertEquals(RECIPE, RecipeHtmlSlicer.sliceRecipe(html));
+    }
+
+    @Test
+    void ignoresItemtypeInComment() {
+        String html = "<body><!-- <div itemtype=\"https://schema.org/Recipe\"> old layout --><p>intro</p>" + RECIPE + "</body>";
+
+        assertEquals(html.indexOf(RECIPE), RecipeHtmlSlicer.recipeTagStart(html));
+        assertEquals(RECIPE, RecipeHtmlSlicer.sliceRecipe(html));
+    }
+
+    @Test
+    void ignoresItemtypeInScriptStyleAndTemplate() {
+        String html = "<head><script>var tpl = '<div itemtype=\"https://schema.org/Recipe\">';</script>"
+                + "<style>[itemtype*='schema.org/Recipe'] { color: red }</style></head><body>"
+                + "<template><section itemtype=\"https://schema.org/Recipe\"></section></template>" + RECIPE + "</body>";
+
+        assertEquals(html.indexOf(RECIPE), RecipeHtmlSlicer.recipeTagStart(html));
+        assertEquals(RECIPE, RecipeHtmlSlicer.sliceRecipe(html));
+    }
+
+    @Test
+    void ignoresRecipeTypeOutsideItemtype() {
+        String html = "<body><a href=\"https://schema.org/Recipe\">schema.org/Recipe</a>"
+                + "<div data-x=\"itemtype=schema.org/Recipe\"></div></body>";
+
+        assertEquals(-1, RecipeHtmlSlicer.recipeTagStart(html));
+    }
+
+    @Test
+    void findsUnquotedItemtype() {
+        String html = "<body><article itemscope itemtype=https://schema.org/Recipe><p>x</p></article></body>";
+
+        assertEquals("<article itemscope itemtype=https://schema.org/Recipe><p>x</p></article>",
+                RecipeHtmlSlicer.sliceRecipe(html));
+    }
+
+    @Test
+    void quotedGreaterThanDoesNotEndTag() {
+        String recipe = "<div title=\"a > b\" itemtype=\"https://schema.org/Recipe\">"
+                + "<img alt=\"<div>\" src=\"x.jpg\"><a title='</div>' href=\"#\">link</a></div>";
+        String html = "<body><span data-note=\"1 > 0\">x</span>" + recipe + "<div>after</div></body>";
+
+        assertEquals(html.indexOf(recipe), RecipeHtmlSlicer.recipeTagStart(html));
+        assertEquals(recipe, RecipeHtmlSlicer.sliceRecipe(html));
+    }
+
+    @Test
+    void closesOptionalEndTagsInsideRecipe() {
+        String recipe = "<div itemtype=\"https://schema.org/Recipe\"><ul><li>one<li>two</ul>"
+                + "<p>first<p>second<div>inner</div></div>";
+        String html = "<body>" + recipe + "<div>after</div></body>";
+
+        assertEquals(recipe, RecipeHtmlSlicer.sliceRecipe(html));
+    }
+
+    @Test
+    void skipsMarkupInsideNestedScript() {
+        String recipe = "<div itemtype=\"https://schema.org/Recipe\"><script>document.write('</div>');</script><br/></div>";
+        String html = "<body>" + recipe + "</body>";
+
+        assertEquals(recipe, RecipeHtmlSlicer.sliceRecipe(html));
+    }
+
+    @Test
+    void returnsNullForUnbalancedRecipe() {
+        assertNull(RecipeHtmlSlicer.sliceRecipe("<body><div itemtype=\"https://schema.org/Recipe\"><span>x</div></body>"));
+        assertNull(RecipeHtmlSlicer.sliceRecipe("<body><div itemtype=\"https://schema.org/Recipe\"><div>x</div>"));
+        assertNull(RecipeHtmlSlicer.sliceRecipe("<body><div itemtype=\"https://schema.org/Recipe\"></p></div></body>"));
+    }
+
+    @Test
+    void returnsNullForRecipeOnOptionalEndTag() {
+        assertNull(RecipeHtmlSlicer.sliceRecipe("<ul><li itemtype=\"https://schema.org/Recipe\">one<li>two</ul>"));
+        assertNull(RecipeHtmlSlicer.sliceRecipe("<table><tr itemtype=\"https://schema.org/Recipe\"><td>x</td></tr></table>"));
+    }
+
+    @Test
+    void scraperIgnoresDecoysLikeLegacyImplementation() throws IOException {
+        String html = AGRecipeScraperTest.page("ag-recipe.html")
+                .replace("<!-- page: przepis -->",
+                        "<!-- <div itemscope itemtype=\"https://schema.org/Recipe\"><h1 itemprop=\"name\">Stary</h1></div> -->")
+                .replace("gtag('js', new Date());",
+                        "gtag('js', new Date()); var t = '<div itemtype=\"https://schema.org/Recipe\">';");
+        String slice = RecipeHtmlSlicer.sliceRecipe(html);
+
+        assertNotNull(slice);
+        assertTrue(slice.startsWith("<article class=\"article\""));
+        assertEquals(new LegacyAGRecipeScraper().scrape(html), new AGRecipeScraper().scrape(html));
+    }
+}
@@ -0,0 +1,90 @@
+package com.bervan.cookbook.scraper;
+
+import com.bervan.cookbook.model.ScrapedRecipeData;
+import com.bervan.cookbook.scraper.ScraperRegistry.ScraperStats;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScraperRegistryTest {
+    private static final String JSON_LD_PAGE = """
+            <html><head><script type="application/ld+json">
+            {"@type": "Recipe", "name": "Pancakes", "recipeIngredient": ["2 eggs", "200 ml milk"]}
+            </script></head><body></body></html>""";
+
+    @Test
+    void jsonLdFallbackIsBookedToAgScraper() throws IOException {
+        AGRecipeScraper ag = new AGRecipeScraper();
+        ScraperRegistry registry = new ScraperRegistry(List.of(new JsonLdRecipeScraper(ag), ag));
+        RecipeScraperStrategy jsonLd = registry.find("JSON-LD").orElseThrow();
+
+        assertEquals("Placki ziemniaczane", jsonLd.scrape(AGRecipeScraperTest.page("ag-recipe.html")).getName());
+        assertEquals("Pancakes", jsonLd.scrape(JSON_LD_PAGE).getName());
+
+        ScraperStats jsonLdStats = stats(registry, "JSON-LD");
+        ScraperStats agStats = stats(registry, ag.getName());
+        assertEquals(2, jsonLdStats.getCallCount());
+        assertEquals(1, agStats.getCallCount());
+        assertEquals(0, jsonLdStats.getErrorCount());
+    }
+
+    @Test
+    void detectsAgPagesByHost() {
+        AGRecipeScraper ag = new AGRecipeScraper();
+        ScraperRegistry registry = new ScraperRegistry(List.of(new JsonLdRecipeScraper(ag), ag));
+        String canonicalPage = "<html><head><link rel=\"canonical\" href=\"https://www.aniagotuje.pl/przepis/bigos\">"
+                + "</head>" + JSON_LD_PAGE.substring(JSON_LD_PAGE.indexOf("<script"));
+
+        assertEquals(ag.getName(), registry.detect("https://aniagotuje.pl/przepis/bigos", JSON_LD_PAGE).getName());
+        assertEquals(ag.getName(), registry.detect(null, canonicalPage).getName());
+        assertEquals("JSON-LD", registry.detect("https://example.com/recipe", JSON_LD_PAGE).getName());
+    }
+
+    @Test
+    void fallbackErrorsAreBookedToFallback() {
+        RecipeScraperStrategy failing = new RecipeScraperStrategy() {
+            @Override
+            public String getName() {
+                return "Failing";
+            }
+
+            @Override
+            public ScrapedRecipeData scrape(String html) {
+                throw new IllegalStateException("broken page");
+            }
+        };
+        RecipeScraperStrategy declining = new RecipeScraperStrategy() {
+            @Override
+            public String getName() {
+                return "Declining";
+            }
+
+            @Override
+            public ScrapedRecipeData scrape(String html) {
+                return failing.scrape(html);
+            }
+
+            @Override
+            public ScrapedRecipeData scrapeWithoutFallback(String html) {
+                return null;
+            }
+
+            @Override
+            public String getFallbackName() {
+                return "Failing";
+            }
+        };
+        ScraperRegistry registry = new ScraperRegistry(List.of(declining, failing));
+
+        assertThrows(IllegalStateException.class, () -> registry.find("Declining").orElseThrow().scrape("<html></html>"));
+        assertEquals(0, stats(registry, "Declining").getErrorCount());
+        assertEquals(1, stats(registry, "Failing").getErrorCount());
+    }
+
+    private static ScraperStats stats(ScraperRegistry registry, String name) {
+        return registry.getStats().stream().filter(s -> s.getName().equals(name)).findFirst().orElseThrow();
+    }
+}
@@ -0,0 +1,34 @@
+package com.bervan.cookbook.text;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * The Normalizer- and regex-based folding and tokenizing that {@link PolishTextFolder} and
+ * {@link PolishTokenizer} replaced, kept as the reference for tests and benchmarks.
+ */
+final class LegacyPolishText {
+    private static final Set<String> NOISE_WORDS = Set.of(
+            "do", "na", "z", "ze", "od", "w", "i", "lub", "albo", "świeży", "świeża", "świeże",
+            "duży", "duża", "duże", "mały", "mała", "małe", "średni", "średnia", "średnie"
+    );
+
+    private LegacyPolishText() {
+    }
+
+    static String fold(String text) {
+        String normalized = java.text.Normalizer.normalize(text.trim().toLowerCase(), java.text.Normalizer.Form.NFD);
+        normalized = normalized.replace("ł", "l").replace("Ł", "L");
+        return normalized.replaceAll("[\\p{InCombiningDiacriticalMarks}]", "");
+    }
+
+    static Set<String> tokenize(String text) {
+        String normalized = fold(text);
+        return Arrays.stream(normalized.split("[\\s,]+"))
+                .filter(t -> !t.isBlank())
+                .filter(t -> t.length() >= 2)
+                .filter(t -> !NOISE_WORDS.contains(t))
+                .collect(Collectors.toSet());
+    }
+}
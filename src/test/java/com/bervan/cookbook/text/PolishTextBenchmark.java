@@ -0,0 +1,63 @@
+package com.bervan.cookbook.text;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Table-driven folding and tokenizing against the Normalizer/regex versions they replaced,
+ * over typical recipe ingredient lines. Run with {@code mvn test-compile} and then
+ * {@code java -cp target/test-classes:<test classpath> com.bervan.cookbook.text.PolishTextBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PolishTextBenchmark {
+    private static final String[] LINES = {
+            "Mąka pszenna typ 450", "2 duże jajka", "świeża natka pietruszki, posiekana",
+            "Sól i pieprz do smaku", "ŻÓŁTY SER lub mozzarella", "200 g łososia wędzonego",
+            "Średnia cebula, pokrojona w kostkę", "Śmietana 18%", "pół łyżeczki cukru", "Oliwa z oliwek"
+    };
+
+    @Benchmark
+    public void foldTable(Blackhole blackhole) {
+        for (String line : LINES) {
+            blackhole.consume(PolishTextFolder.fold(line));
+        }
+    }
+
+    @Benchmark
+    public void foldLegacy(Blackhole blackhole) {
+        for (String line : LINES) {
+            blackhole.consume(LegacyPolishText.fold(line));
+        }
+    }
+
+    /**
+     * Includes stemming, which the legacy tokenizer did not do.
+     */
+    @Benchmark
+    public void tokenizeSinglePass(Blackhole blackhole) {
+        for (String line : LINES) {
+            blackhole.consume(PolishTokenizer.tokenize(line));
+        }
+    }
+
+    @Benchmark
+    public void tokenizeLegacy(Blackhole blackhole) {
+        for (String line : LINES) {
+            blackhole.consume(LegacyPolishText.tokenize(line));
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(PolishTextBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,47 @@
+package com.bervan.cookbook.text;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PolishTextFolderTest {
+
+    @Test
+    void foldsPolishLetters() {
+        assertEquals("acelnoszz", PolishTextFolder.fold("ąćęłńóśźż"));
+        assertEquals("acelnoszz", PolishTextFolder.fold("ĄĆĘŁŃÓŚŹŻ"));
+        assertEquals("zolc", PolishTextFolder.fold("Żółć"));
+    }
+
+    @Test
+    void matchesLegacyFoldForLatin1AndLatinExtendedA() {
+        // U+0000 is the exception: 0 is foldChar's "drop" result, so NUL is dropped
+        assertEquals("ab", PolishTextFolder.fold("a\u0000b"));
+        for (char c = 1; c < 0x180; c++) {
+            // Surrounded by letters so the legacy trim() does not hide whitespace and control characters
+            String text = "a" + c + "b";
+            assertEquals(LegacyPolishText.fold(text), PolishTextFolder.fold(text),
+                    String.format("U+%04X", (int) c));
+        }
+    }
+
+    @Test
+    void dropsCombiningMarks() {
+        // Decomposed: Z + dot above, o + acute, e + ogonek
+        assertEquals("zolc", PolishTextFolder.fold("Z\u0307o\u0301l\u0107"));
+        assertEquals("e", PolishTextFolder.fold("e\u0328\u036F"));
+    }
+
+    @Test
+    void trimsLikeString() {
+        assertEquals("maka pszenna", PolishTextFolder.fold(" \t Mąka pszenna\n"));
+        assertEquals("", PolishTextFolder.fold("   "));
+    }
+
+    @Test
+    void onlyLowerCasesCharactersOutsideTheTable() {
+        // Greek capitals are lower-cased, the precomposed accent is kept
+        assertEquals("\u03C9\u03BC\u03AD\u03B3\u03B1", PolishTextFolder.fold("\u03A9\u039C\u0388\u0393\u0391"));
+        assertEquals("€5", PolishTextFolder.fold("€5"));
+    }
+}
@@ -0,0 +1,64 @@
+package com.bervan.cookbook.text;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PolishTokenizerTest {
+    private static final String[] NOISE_WORDS = {
+            "do", "na", "z", "ze", "od", "w", "i", "lub", "albo", "świeży", "świeża", "świeże",
+            "duży", "duża", "duże", "mały", "mała", "małe", "średni", "średnia", "średnie"
+    };
+
+    @Test
+    void recognizesEveryNoiseWordInFoldedForm() {
+        for (String word : NOISE_WORDS) {
+            char[] folded = PolishTextFolder.fold(word).toCharArray();
+            assertTrue(PolishTokenizer.isNoiseWord(folded, folded.length), word);
+        }
+    }
+
+    @Test
+    void rejectsWordsOutsideTheNoiseTable() {
+        for (String word : new String[]{"dom", "nad", "zez", "ol", "swiezo", "sredn", "malina", "x", ""}) {
+            assertFalse(PolishTokenizer.isNoiseWord(word.toCharArray(), word.length()), word);
+        }
+    }
+
+    @Test
+    void matchesOnlyTheGivenPrefixOfTheBuffer() {
+        char[] buffer = "duzyxyz".toCharArray();
+        assertTrue(PolishTokenizer.isNoiseWord(buffer, 4));
+        assertFalse(PolishTokenizer.isNoiseWord(buffer, 5));
+    }
+
+    @Test
+    void skipsNoiseWordsWrittenWithDiacritics() {
+        assertEquals(Set.of("pomidor"), PolishTokenizer.tokenize("Świeży, duży pomidor"));
+    }
+
+    @Test
+    void splitsOnWhitespaceAndCommasAndSkipsShortTokens() {
+        assertEquals(Set.of("mak", "cukr", "pszenn"),
+                PolishTokenizer.tokenize("\tmąka,pszenna  cukru\nx, mak"));
+        assertTrue(PolishTokenizer.tokenize(" ,, \n").isEmpty());
+    }
+
+    @Test
+    void matchesLegacyTokensAfterStemming() {
+        // Without diacritic noise words, which the legacy tokenizer never matched once folded
+        String[] inputs = {
+                "Mąka pszenna typ 450", "2 jajka", "natka pietruszki, posiekana",
+                "Sól i pieprz do smaku", "ŻÓŁTY SER lub mozzarella", "olej\tz oliwek"
+        };
+        for (String input : inputs) {
+            Set<String> expected = LegacyPolishText.tokenize(input).stream()
+                    .map(PolishStemmer::stem)
+                    .collect(Collectors.toSet());
+            assertEquals(expected, PolishTokenizer.tokenize(input), input);
+        }
+    }
+}